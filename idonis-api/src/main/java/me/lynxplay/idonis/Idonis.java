@@ -84,6 +84,40 @@ public interface Idonis {
                                Function<Path, StatementKey> keyGenerator,
                                Function<String, StatementPromise> statementParser);
 
+    /**
+     * Returns the container reading the dialect files from class path resources, which may lie in plain folders or
+     * inside jar files. The resources below the dialect folder are indexed once when this method is called. This will
+     * default all created {@link StatementKey} to the usage of {@link Idonis#simpleStringPath(Path)}
+     *
+     * @param classLoader the class loader to find the resources with
+     * @param resourceFolder the relative resource folder under which all of those statements lie, e.g. {@code sql}
+     * @param dialect the dialect
+     *
+     * @return the container instance.
+     */
+    default IdonisContainer forResources(ClassLoader classLoader,
+                                         String resourceFolder,
+                                         SQLDialect dialect) {
+        return this.forResources(classLoader, resourceFolder, dialect, p -> this.simpleStringPath(p.getFileName()));
+    }
+
+    /**
+     * Returns the container reading the dialect files from class path resources, which may lie in plain folders or
+     * inside jar files. The resources below the dialect folder are indexed once when this method is called. This method
+     * will created the {@link StatementKey} instances based on the provided {@link Function}.
+     *
+     * @param classLoader the class loader to find the resources with
+     * @param resourceFolder the relative resource folder under which all of those statements lie, e.g. {@code sql}
+     * @param dialect the dialect
+     * @param keyGenerator the key generator used to fill the keys.
+     *
+     * @return the container instance.
+     */
+    IdonisContainer forResources(ClassLoader classLoader,
+                                 String resourceFolder,
+                                 SQLDialect dialect,
+                                 Function<Path, StatementKey> keyGenerator);
+
     /**
      * Creates a simple {@link StatementKey} that is based on a sub path
      *
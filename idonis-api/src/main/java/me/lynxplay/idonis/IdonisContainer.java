@@ -28,6 +28,9 @@ import me.lynxplay.idonis.dialect.StatementKey;
 import me.lynxplay.idonis.dialect.promise.StatementPromise;
 
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 /**
@@ -57,6 +60,58 @@ public interface IdonisContainer {
      */
     StatementPromise using(StatementKey key);
 
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread on reading or
+     * parsing the script. The default implementation runs {@link #using(String)} on the {@link
+     * ForkJoinPool#commonPool()}, containers may pick a more suitable executor.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the future completed with the promise
+     */
+    default CompletableFuture<StatementPromise> usingAsync(String key) {
+        return this.usingAsync(key, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread on reading or
+     * parsing the script. Scripts that have to be loaded are loaded on the given executor.
+     *
+     * @param key the key to fetch against
+     * @param executor the executor to load the script on
+     *
+     * @return the future completed with the promise
+     */
+    default CompletableFuture<StatementPromise> usingAsync(String key, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> this.using(key), executor);
+    }
+
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread on reading or
+     * parsing the script. The default implementation runs {@link #using(StatementKey)} on the {@link
+     * ForkJoinPool#commonPool()}, containers may pick a more suitable executor.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the future completed with the promise
+     */
+    default CompletableFuture<StatementPromise> usingAsync(StatementKey key) {
+        return this.usingAsync(key, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread on reading or
+     * parsing the script. Scripts that have to be loaded are loaded on the given executor.
+     *
+     * @param key the key to fetch against
+     * @param executor the executor to load the script on
+     *
+     * @return the future completed with the promise
+     */
+    default CompletableFuture<StatementPromise> usingAsync(StatementKey key, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> this.using(key), executor);
+    }
+
     /**
      * Returns the key generator of the container, that converts a path into a key
      *
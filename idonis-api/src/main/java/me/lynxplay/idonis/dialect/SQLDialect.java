@@ -33,17 +33,29 @@ public enum SQLDialect {
     /**
      * The MySQL dialect represents the MySQL language
      */
-    MYSQL("mysql"),
+    MYSQL("mysql", 65_535),
 
     /**
-     * The SQLLite dialect represents the SQLLite language.
+     * The SQLLite dialect represents the SQLLite language. The parameter limit is the default {@code
+     * SQLITE_MAX_VARIABLE_NUMBER} of SQLite versions before 3.32.0, which newer versions raised.
      */
-    SQLITE("sqlite");
+    SQLITE("sqlite", 999);
 
     private String relativePath;
+    private int maxParameters;
 
-    SQLDialect(String relativePath) {
+    SQLDialect(String relativePath, int maxParameters) {
         this.relativePath = relativePath;
+        this.maxParameters = maxParameters;
+    }
+
+    /**
+     * Returns the maximum amount of {@code ?} a single statement of this dialect may contain
+     *
+     * @return the parameter limit
+     */
+    public int maxParameters() {
+        return this.maxParameters;
     }
 
     /**
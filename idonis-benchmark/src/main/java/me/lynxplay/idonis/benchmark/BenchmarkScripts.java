@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.dialect.SQLDialect;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Generates throw away idonis folders for the benchmarks
+ */
+public final class BenchmarkScripts {
+
+    private BenchmarkScripts() {
+    }
+
+    /**
+     * Writes the given amount of upsert scripts into a fresh temporary idonis folder. The scripts are named {@code
+     * script-<index>.sql} and are placed in the folder of the given dialect.
+     *
+     * @param dialect the dialect to write the scripts for
+     * @param count the amount of scripts
+     *
+     * @return the idonis folder
+     */
+    public static Path createIdonisFolder(SQLDialect dialect, int count) {
+        try {
+            Path root = Files.createTempDirectory("idonis-benchmark");
+            Path dialectFolder = Files.createDirectories(dialect.resolve(root));
+            for (int i = 0; i < count; i++) {
+                Files.writeString(dialectFolder.resolve(name(i)), String.join(System.lineSeparator(),
+                        "/*",
+                        "@id",
+                        "@name",
+                        "*/",
+                        "INSERT INTO test_" + i + " (id, name)",
+                        "VALUES (@id, @name)",
+                        "ON CONFLICT(id) DO UPDATE SET name=@name;"));
+            }
+            return root;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the benchmark scripts", e);
+        }
+    }
+
+    /**
+     * Creates a single script of at least the given size that declares the given amount of variables and uses each of
+     * them several times. Every statement of the script also contains a plain {@code ?} parameter.
+     *
+     * @param variables the amount of declared variables
+     * @param size the minimum length of the script
+     *
+     * @return the script
+     */
+    public static String largeScript(int variables, int size) {
+        StringBuilder script = new StringBuilder("/*").append(System.lineSeparator());
+        for (int i = 0; i < variables; i++) {
+            script.append("@variable_").append(i).append(System.lineSeparator());
+        }
+        script.append("*/").append(System.lineSeparator());
+
+        for (int i = 0; script.length() < size; i++) {
+            script.append("UPDATE table_").append(i)
+                    .append(" SET name = @variable_").append(i % variables)
+                    .append(",").append(System.lineSeparator())
+                    .append("    updated = ?").append(System.lineSeparator())
+                    .append("WHERE id = @variable_").append((i * 7) % variables).append(";").append(System.lineSeparator());
+        }
+        return script.toString();
+    }
+
+    /**
+     * Returns the script name of the script with the given index
+     *
+     * @param index the index of the script
+     *
+     * @return the file name
+     */
+    public static String name(int index) {
+        return "script-" + index + ".sql";
+    }
+
+    /**
+     * Deletes a folder created by {@link #createIdonisFolder(SQLDialect, int)}
+     *
+     * @param root the folder to delete
+     */
+    public static void delete(Path root) {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete the benchmark scripts", e);
+        }
+    }
+}
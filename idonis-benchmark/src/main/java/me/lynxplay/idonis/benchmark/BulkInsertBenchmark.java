@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.core.dialect.promise.BatchResult;
+import me.lynxplay.idonis.core.dialect.promise.MultiRowInsert;
+import me.lynxplay.idonis.core.dialect.promise.StatementBinder;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.SQLDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures inserting rows into an in-memory SQLite database, once as JDBC batch of the single row insert and once
+ * spread over the multi row buckets of a {@link MultiRowInsert}. The table is emptied before every invocation, each
+ * invocation runs in its own transaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final StatementBinder<Integer> BINDER = (statement, i) -> {
+        statement.setString(1, "user-" + i);
+        statement.setInt(2, i);
+        statement.setInt(3, i * 7);
+        statement.setLong(4, 1_600_000_000_000L + i);
+        statement.setString(5, "user-" + i + "@example.com");
+    };
+
+    @Param({"1000"})
+    public int rows;
+
+    private Connection connection;
+    private ValidStatementPromise promise;
+    private MultiRowInsert insert;
+    private List<Integer> ids;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        this.connection.setAutoCommit(false);
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id INTEGER PRIMARY KEY, name TEXT, email TEXT, score INTEGER, created INTEGER, checksum INTEGER)");
+        }
+        this.promise = (ValidStatementPromise) new ValidStatementParser().apply(ParameterBindingBenchmark.INSERT);
+        this.insert = MultiRowInsert.of(this.promise, SQLDialect.SQLITE).orElseThrow();
+        this.ids = new ArrayList<>(this.rows);
+        for (int i = 0; i < this.rows; i++) this.ids.add(i);
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() throws SQLException {
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("DELETE FROM users");
+        }
+        this.connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        this.connection.close();
+    }
+
+    @Benchmark
+    public BatchResult batch() throws SQLException {
+        BatchResult result = this.promise.executeBatch(this.connection, this.ids, BINDER, this.rows);
+        this.connection.commit();
+        return result;
+    }
+
+    @Benchmark
+    public BatchResult multiRow() throws SQLException {
+        BatchResult result = this.insert.execute(this.connection, this.ids, BINDER);
+        this.connection.commit();
+        return result;
+    }
+}
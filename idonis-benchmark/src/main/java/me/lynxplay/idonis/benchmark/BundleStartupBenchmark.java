@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.IdonisContainer;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.BundleIdonisContainer;
+import me.lynxplay.idonis.core.dialect.ConcurrentIdonisContainer;
+import me.lynxplay.idonis.core.dialect.bundle.ParseCache;
+import me.lynxplay.idonis.core.dialect.bundle.ScriptBundle;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.SQLDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading every script of a dialect folder into a fresh container. The scripts are either read and parsed
+ * from single script files, read from single files and looked up in a warm {@link ParseCache}, or decoded from a {@link
+ * ScriptBundle} packed from the same folder.
+ * <p>
+ * Run with {@code java -jar idonis-benchmark/target/benchmarks.jar BundleStartup}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BundleStartupBenchmark {
+
+    @Param({"100", "1000"})
+    public int scripts;
+
+    private Path idonisFolder;
+    private Path dialectFolder;
+    private Path bundleFile;
+    private Path cacheFile;
+    private IdonisCore core;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.idonisFolder = BenchmarkScripts.createIdonisFolder(SQLDialect.SQLITE, this.scripts);
+        this.dialectFolder = SQLDialect.SQLITE.resolve(this.idonisFolder);
+        this.bundleFile = this.idonisFolder.resolve("sqlite.bundle");
+        ScriptBundle.pack(this.dialectFolder, this.bundleFile, Files::readString, new ValidStatementParser());
+        this.core = new IdonisCore();
+        this.cacheFile = this.idonisFolder.resolve("parse.cache");
+        try (ParseCache cache = ParseCache.open(this.cacheFile, new ValidStatementParser())) {
+            for (int i = 0; i < this.scripts; i++) {
+                cache.apply(Files.readString(this.dialectFolder.resolve(BenchmarkScripts.name(i))));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkScripts.delete(this.idonisFolder);
+    }
+
+    @Benchmark
+    public void files(Blackhole blackhole) {
+        this.loadAll(new ConcurrentIdonisContainer(this.dialectFolder, this.core::simpleStringPath, new ValidStatementParser()), blackhole);
+    }
+
+    @Benchmark
+    public void bundle(Blackhole blackhole) throws IOException {
+        this.loadAll(new BundleIdonisContainer(this.dialectFolder, this.core::simpleStringPath, ScriptBundle.open(this.bundleFile)), blackhole);
+    }
+
+    @Benchmark
+    public void parseCache(Blackhole blackhole) {
+        ParseCache cache = ParseCache.open(this.cacheFile, new ValidStatementParser());
+        this.loadAll(new ConcurrentIdonisContainer(this.dialectFolder, this.core::simpleStringPath, cache), blackhole);
+    }
+
+    private void loadAll(IdonisContainer container, Blackhole blackhole) {
+        for (int i = 0; i < this.scripts; i++) {
+            blackhole.consume(container.using(BenchmarkScripts.name(i)));
+        }
+    }
+}
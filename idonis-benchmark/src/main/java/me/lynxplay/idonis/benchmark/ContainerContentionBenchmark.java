@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.IdonisContainer;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.ConcurrentIdonisContainer;
+import me.lynxplay.idonis.core.dialect.LazyLoadIdonisContainer;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.SQLDialect;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures warm lookup throughput of the containers while an increasing amount of threads hammers them. The
+ * synchronized variant represents the naive way of sharing a {@link LazyLoadIdonisContainer} between threads.
+ * <p>
+ * Run with {@code java -jar idonis-benchmark/target/benchmarks.jar ContainerContention}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContainerContentionBenchmark {
+
+    @Param({"concurrent", "synchronized"})
+    public String container;
+
+    @Param({"64"})
+    public int scripts;
+
+    private Path idonisFolder;
+    private IdonisContainer target;
+    private StatementKey[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.idonisFolder = BenchmarkScripts.createIdonisFolder(SQLDialect.SQLITE, this.scripts);
+        IdonisCore core = new IdonisCore();
+        Path root = SQLDialect.SQLITE.resolve(this.idonisFolder);
+
+        if ("concurrent".equals(this.container)) {
+            this.target = new ConcurrentIdonisContainer(root, core::simpleStringPath, new ValidStatementParser());
+        } else {
+            LazyLoadIdonisContainer lazy = new LazyLoadIdonisContainer(root, core::simpleStringPath, new ValidStatementParser());
+            this.target = new SynchronizedContainer(lazy);
+        }
+
+        this.keys = new StatementKey[this.scripts];
+        for (int i = 0; i < this.scripts; i++) {
+            this.keys[i] = core.simpleStringPath(Path.of(BenchmarkScripts.name(i)));
+            this.target.using(this.keys[i]); // Warm the container
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkScripts.delete(this.idonisFolder);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public StatementPromise threads1() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public StatementPromise threads2() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public StatementPromise threads4() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public StatementPromise threadsMax() {
+        return lookup();
+    }
+
+    private StatementPromise lookup() {
+        return this.target.using(this.keys[ThreadLocalRandom.current().nextInt(this.keys.length)]);
+    }
+
+    /**
+     * Guards every lookup of the delegate with a monitor
+     */
+    private static final class SynchronizedContainer implements IdonisContainer {
+
+        private final IdonisContainer delegate;
+
+        private SynchronizedContainer(IdonisContainer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized StatementPromise using(StatementKey key) {
+            return this.delegate.using(key);
+        }
+
+        @Override
+        public Function<Path, StatementKey> keyGenerator() {
+            return this.delegate.keyGenerator();
+        }
+
+        @Override
+        public Path path() {
+            return this.delegate.path();
+        }
+    }
+}
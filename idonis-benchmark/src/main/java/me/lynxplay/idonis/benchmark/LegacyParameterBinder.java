@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.benchmark;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A copy of the parameter lookup of the statement wrapper as it was before it used a {@code ParameterTable}. Every
+ * setter boxes the index, looks it up in a {@link HashMap} and walks a {@link LinkedList}, just like the wrapper
+ * did. Only the setters the benchmarks need are copied.
+ */
+public class LegacyParameterBinder {
+
+    private final PreparedStatement preparedStatement;
+    private final Map<Integer, List<Integer>> fakeIndicesMap;
+
+    /**
+     * Creates a new binder
+     *
+     * @param preparedStatement the inner statement
+     * @param replacement the fake indices map, which is copied into the legacy layout
+     */
+    public LegacyParameterBinder(PreparedStatement preparedStatement, Map<Integer, List<Integer>> replacement) {
+        this.preparedStatement = preparedStatement;
+        this.fakeIndicesMap = new HashMap<>();
+        replacement.forEach((index, reals) -> this.fakeIndicesMap.put(index, new LinkedList<>(reals)));
+    }
+
+    private void of(int index, IndexConsumer consumer) throws SQLException {
+        List<Integer> list = fakeIndicesMap.get(index);
+        if (list != null) {
+            for (Integer i : list) {
+                consumer.accept(i);
+            }
+        }
+    }
+
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        of(parameterIndex, i -> preparedStatement.setInt(i, x));
+    }
+
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        of(parameterIndex, i -> preparedStatement.setLong(i, x));
+    }
+
+    public void setString(int parameterIndex, String x) throws SQLException {
+        of(parameterIndex, i -> preparedStatement.setString(i, x));
+    }
+
+    public void addBatch() throws SQLException {
+        preparedStatement.addBatch();
+    }
+
+    /**
+     * The consumer of a single real index
+     */
+    private interface IndexConsumer {
+
+        void accept(int index) throws SQLException;
+    }
+}
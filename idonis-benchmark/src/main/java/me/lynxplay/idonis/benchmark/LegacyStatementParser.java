@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A copy of the statement parser as it was before it used a {@code MultiPatternMatcher}. It searches every declared
+ * variable using its own {@link CachedStringIndexer} and replaces each found variable in place. The benchmarks compare
+ * the current parser against it.
+ */
+public class LegacyStatementParser implements Function<String, StatementPromise> {
+
+    /**
+     * The internal comment pattern to match the comment in which the variables are defined
+     */
+    private static final Pattern COMMENT_PATTERN = Pattern.compile("(?s)/\\*(.*)\\*/");
+
+    /**
+     * Generates the {@link StatementPromise} instance based on the source string
+     *
+     * @param source the string used as a source
+     *
+     * @return the promise instance
+     */
+    @Override
+    public StatementPromise apply(String source) {
+        Matcher matcher = COMMENT_PATTERN.matcher(source);
+        Map<Integer, List<Integer>> fakeIndexMap = new HashMap<>();
+
+        if (matcher.find()) {
+            String group = matcher.group(1);
+            source = matcher.replaceAll(""); // Remove comment from actual SQL script
+
+            StringBuilder buffer = new StringBuilder(source);
+
+            List<CachedStringIndexer> indexers = Arrays.stream(group.split(System.lineSeparator()))
+                    .filter(s -> !s.isBlank())
+                    .map(t -> new CachedStringIndexer(buffer, t))
+                    .collect(Collectors.toList());
+            CachedStringIndexer normalParameter = new CachedStringIndexer(buffer, "?");
+
+            int fakeIndex = indexers.size();
+            int subIndex = 0;
+
+            List<Integer> actualToFake = new ArrayList<>();
+
+            while (true) {
+                Map.Entry<Integer, CachedStringIndexer> found = Map.entry(normalParameter.find(subIndex), normalParameter);
+                int nextFakeIndex = fakeIndex;
+                for (int i = 0; i < indexers.size(); i++) {
+                    CachedStringIndexer indexer = indexers.get(i);
+                    if (indexer.find(subIndex) >= 0 && (indexer.find(subIndex) < found.getKey() || found.getKey() < 0)) {
+                        found = Map.entry(indexer.find(subIndex), indexer);
+                        nextFakeIndex = i;
+                    }
+                }
+
+                if (found.getKey() < 0) break;
+                if (found.getValue() == normalParameter) {
+                    // Increase fake index by one as we found a ?
+                    nextFakeIndex = fakeIndex++;
+                } else {
+                    // Replace the found variable with the ?
+                    int targetLength = found.getValue().getTarget().length();
+                    buffer.replace(found.getKey(), found.getKey() + targetLength, "?"); // Replace the found key in the cache
+                    indexers.forEach(i -> i.adjustCache(-targetLength + 1)); // Adjust all caches
+                    normalParameter.adjustCache(-targetLength + 1); // Adjust ? indexer
+                }
+
+                actualToFake.add(nextFakeIndex);
+                subIndex = found.getKey() + 1; // Skip to after variable as we just replaced it with a ?
+            }
+
+            for (int i = 0; i < actualToFake.size(); i++) {
+                // Add one to all indices as SQL starts at 1
+                fakeIndexMap.computeIfAbsent(actualToFake.get(i) + 1, $ -> new LinkedList<>()).add(i + 1);
+            }
+
+            source = buffer.toString();
+        }
+
+        String trimmed = source.replaceAll(System.lineSeparator(), " ").replaceAll(" +", " ");
+        return new ValidStatementPromise(trimmed, fakeIndexMap);
+    }
+
+    /**
+     * The {@link CachedStringIndexer} is an index tool that caches the last result until it is invalid
+     */
+    private static final class CachedStringIndexer {
+
+        private int lastIndex;
+
+        private final StringBuilder source;
+        private final String target;
+
+        /**
+         * Creates a new {@link CachedStringIndexer} looking for the given target string in the source string.
+         *
+         * @param source the source string it will search in
+         * @param target the target string it will search for
+         */
+        public CachedStringIndexer(StringBuilder source, String target) {
+            this.source = source;
+            this.target = target;
+            this.lastIndex = -1;
+        }
+
+        /**
+         * Searches for the next found index of the target string
+         *
+         * @param startIndex the start index from which to start the search in the source string
+         *
+         * @return the index of the found sub string or -1 if none was found
+         */
+        public int find(int startIndex) {
+            if (startIndex <= lastIndex) {
+                return lastIndex;
+            }
+            return (this.lastIndex = this.source.indexOf(target, startIndex));
+        }
+
+        /**
+         * Returns the target string of the indexer
+         *
+         * @return the target string
+         */
+        public String getTarget() {
+            return this.target;
+        }
+
+        /**
+         * Adjusts the cache of the indexer by the given value
+         *
+         * @param i the value to adjust by
+         */
+        public void adjustCache(int i) {
+            this.lastIndex += i;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.core.dialect.promise.NamedStatement;
+import me.lynxplay.idonis.core.dialect.promise.ObjectBinder;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementWrapper;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures binding the parameters of a bulk insert, row by row into a batch, against a {@link NoopPreparedStatement}.
+ * The insert declares its variables in a different order than the columns and sets the {@code @id} twice, so every
+ * setter has to translate its index. The {@code legacy} benchmark binds through the {@link LegacyParameterBinder}, the
+ * {@code named} benchmark binds by variable name through a {@code NamedStatement}, the {@code object} benchmark binds
+ * prebuilt rows through an {@code ObjectBinder} and the {@code driver} benchmark binds the real indices straight on the
+ * statement, which is what statements of identity mapped scripts do.
+ * <p>
+ * Run with {@code java -jar idonis-benchmark/target/benchmarks.jar ParameterBinding -prof gc}, the {@code current}
+ * benchmark should not allocate at all. The results are kept in {@code idonis-benchmark/results}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParameterBindingBenchmark {
+
+    static final String INSERT = "/*\n@name\n@id\n@score\n@created\n@email\n*/\n"
+            + "INSERT INTO users (id, name, email, score, created, checksum) VALUES (@id, @name, @email, @score, @created, @id);";
+
+    @Param({"1000"})
+    public int rows;
+
+    private NoopPreparedStatement statement;
+    private ValidStatementWrapper wrapper;
+    private LegacyParameterBinder binder;
+    private PreparedStatement prepared;
+    private NamedStatement named;
+    private ObjectBinder<User> userBinder;
+    private User[] users;
+    private String[] names;
+    private String[] emails;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) new ValidStatementParser().apply(INSERT);
+        this.statement = new NoopPreparedStatement();
+        this.wrapper = new ValidStatementWrapper(this.statement, promise.getParameterTable());
+        this.binder = new LegacyParameterBinder(this.statement, promise.getReplacement());
+        Connection connection = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> this.statement
+        );
+        this.prepared = promise.prepare(connection);
+        this.named = promise.prepareNamed(connection);
+        this.userBinder = promise.binder(User.class);
+        this.names = new String[this.rows];
+        this.emails = new String[this.rows];
+        this.users = new User[this.rows];
+        for (int i = 0; i < this.rows; i++) {
+            this.names[i] = "user-" + i;
+            this.emails[i] = "user-" + i + "@example.com";
+            this.users[i] = new User(i, this.names[i], this.emails[i], i * 7, 1_600_000_000_000L + i);
+        }
+    }
+
+    @Benchmark
+    public long current() throws SQLException {
+        ValidStatementWrapper wrapper = this.wrapper;
+        for (int i = 0; i < this.rows; i++) {
+            wrapper.setString(1, this.names[i]);
+            wrapper.setInt(2, i);
+            wrapper.setInt(3, i * 7);
+            wrapper.setLong(4, 1_600_000_000_000L + i);
+            wrapper.setString(5, this.emails[i]);
+            wrapper.addBatch();
+        }
+        return this.statement.checksum();
+    }
+
+    @Benchmark
+    public long named() throws SQLException {
+        NamedStatement named = this.named;
+        for (int i = 0; i < this.rows; i++) {
+            named.setString("name", this.names[i]);
+            named.setInt("id", i);
+            named.setInt("score", i * 7);
+            named.setLong("created", 1_600_000_000_000L + i);
+            named.setString("email", this.emails[i]);
+            named.addBatch();
+        }
+        return this.statement.checksum();
+    }
+
+    @Benchmark
+    public long object() throws SQLException {
+        PreparedStatement prepared = this.prepared;
+        ObjectBinder<User> binder = this.userBinder;
+        for (int i = 0; i < this.rows; i++) {
+            binder.addBatch(prepared, this.users[i]);
+        }
+        return this.statement.checksum();
+    }
+
+    @Benchmark
+    public long driver() throws SQLException {
+        NoopPreparedStatement statement = this.statement;
+        for (int i = 0; i < this.rows; i++) {
+            statement.setInt(1, i);
+            statement.setString(2, this.names[i]);
+            statement.setString(3, this.emails[i]);
+            statement.setInt(4, i * 7);
+            statement.setLong(5, 1_600_000_000_000L + i);
+            statement.setInt(6, i);
+            statement.addBatch();
+        }
+        return statement.checksum();
+    }
+
+    @Benchmark
+    public long legacy() throws SQLException {
+        LegacyParameterBinder binder = this.binder;
+        for (int i = 0; i < this.rows; i++) {
+            binder.setString(1, this.names[i]);
+            binder.setInt(2, i);
+            binder.setInt(3, i * 7);
+            binder.setLong(4, 1_600_000_000_000L + i);
+            binder.setString(5, this.emails[i]);
+            binder.addBatch();
+        }
+        return this.statement.checksum();
+    }
+
+    /**
+     * A row of the insert, shaped like a record
+     */
+    public static final class User {
+
+        private final int id;
+        private final String name;
+        private final String email;
+        private final int score;
+        private final long created;
+
+        public User(int id, String name, String email, int score, long created) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.score = score;
+            this.created = created;
+        }
+
+        public int id() {
+            return this.id;
+        }
+
+        public String name() {
+            return this.name;
+        }
+
+        public String email() {
+            return this.email;
+        }
+
+        public int score() {
+            return this.score;
+        }
+
+        public long created() {
+            return this.created;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.core.dialect.promise.ColumnIndex;
+import me.lynxplay.idonis.core.dialect.promise.Row;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the columns of 1000 rows of an in-memory SQLite database by index, by label through the driver and
+ * by label through a {@link Row}, which resolves the labels with the {@link ColumnIndex} cached by the promise
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private Connection connection;
+    private ValidStatementPromise promise;
+    private PreparedStatement statement;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id INTEGER PRIMARY KEY, name TEXT, email TEXT, score INTEGER, created INTEGER)");
+            statement.execute("WITH RECURSIVE ids(id) AS (SELECT 0 UNION ALL SELECT id + 1 FROM ids WHERE id < 999) "
+                    + "INSERT INTO users SELECT id, 'user-' || id, 'user-' || id || '@example.com', id * 7, 1600000000000 + id FROM ids");
+        }
+        this.promise = (ValidStatementPromise) new ValidStatementParser().apply("SELECT id, name, email, score, created FROM users");
+        this.statement = this.promise.prepare(this.connection);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        this.statement.close();
+        this.connection.close();
+    }
+
+    @Benchmark
+    public long index() throws SQLException {
+        long checksum = 0;
+        try (ResultSet resultSet = this.statement.executeQuery()) {
+            while (resultSet.next()) {
+                checksum += resultSet.getInt(1) + resultSet.getString(2).length() + resultSet.getString(3).length()
+                        + resultSet.getInt(4) + resultSet.getLong(5);
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long driverLabel() throws SQLException {
+        long checksum = 0;
+        try (ResultSet resultSet = this.statement.executeQuery()) {
+            while (resultSet.next()) {
+                checksum += resultSet.getInt("id") + resultSet.getString("name").length() + resultSet.getString("email").length()
+                        + resultSet.getInt("score") + resultSet.getLong("created");
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long rowLabel() throws SQLException {
+        long checksum = 0;
+        try (ResultSet resultSet = this.statement.executeQuery()) {
+            Row row = new Row(resultSet, this.promise.columns(resultSet));
+            while (resultSet.next()) {
+                checksum += row.getInt("id") + row.getString("name").length() + row.getString("email").length()
+                        + row.getInt("score") + row.getLong("created");
+            }
+        }
+        return checksum;
+    }
+}
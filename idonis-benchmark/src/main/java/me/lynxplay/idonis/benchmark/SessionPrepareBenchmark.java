@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.core.session.IdonisSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a primary key lookup on an in-memory SQLite database, once preparing the statement on every call and once
+ * reusing the statement cached by an {@link IdonisSession}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionPrepareBenchmark {
+
+    private static final String SELECT = "/*\n@id\n*/\nSELECT u.name, u.email FROM users u WHERE u.id = @id AND u.score >= 0";
+
+    private Connection connection;
+    private IdonisSession session;
+    private ValidStatementPromise promise;
+    private int id;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id INTEGER PRIMARY KEY, name TEXT, email TEXT, score INTEGER)");
+            statement.execute("WITH RECURSIVE ids(id) AS (SELECT 0 UNION ALL SELECT id + 1 FROM ids WHERE id < 999) "
+                    + "INSERT INTO users SELECT id, 'user-' || id, 'user-' || id || '@example.com', id * 7 FROM ids");
+        }
+        this.promise = (ValidStatementPromise) new ValidStatementParser().apply(SELECT);
+        this.session = new IdonisSession(this.connection, 16);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        this.session.close();
+        this.connection.close();
+    }
+
+    @Benchmark
+    public String prepare() throws SQLException {
+        try (PreparedStatement statement = this.promise.prepare(this.connection)) {
+            return this.select(statement);
+        }
+    }
+
+    @Benchmark
+    public String session() throws SQLException {
+        try (PreparedStatement statement = this.session.prepare(this.promise)) {
+            return this.select(statement);
+        }
+    }
+
+    private String select(PreparedStatement statement) throws SQLException {
+        statement.setInt(1, this.id = (this.id + 1) % 1000);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.benchmark;
+
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.ConcurrentIdonisContainer;
+import me.lynxplay.idonis.core.dialect.FrozenIdonisContainer;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.SQLDialect;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures warm lookups by string. The {@code keyGeneration} benchmark resembles the former default of {@code
+ * IdonisContainer#using(String)}, which parsed a path and generated a key on every call.
+ * <p>
+ * Run with {@code java -jar idonis-benchmark/target/benchmarks.jar StringLookup -prof gc} and compare the {@code
+ * gc.alloc.rate.norm} of the benchmarks, warm string lookups should not allocate at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringLookupBenchmark {
+
+    private static final int SCRIPTS = 64;
+
+    private Path idonisFolder;
+    private ConcurrentIdonisContainer concurrent;
+    private FrozenIdonisContainer frozen;
+    private String key;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.idonisFolder = BenchmarkScripts.createIdonisFolder(SQLDialect.SQLITE, SCRIPTS);
+        IdonisCore core = new IdonisCore();
+        this.concurrent = new ConcurrentIdonisContainer(SQLDialect.SQLITE.resolve(this.idonisFolder), core::simpleStringPath, new ValidStatementParser());
+        for (int i = 0; i < SCRIPTS; i++) {
+            this.concurrent.using(BenchmarkScripts.name(i));
+        }
+        this.frozen = this.concurrent.freeze();
+        this.key = BenchmarkScripts.name(SCRIPTS / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkScripts.delete(this.idonisFolder);
+    }
+
+    @Benchmark
+    public StatementPromise keyGeneration() {
+        return this.concurrent.using(this.concurrent.keyGenerator().apply(Path.of(this.key)));
+    }
+
+    @Benchmark
+    public StatementPromise concurrent() {
+        return this.concurrent.using(this.key);
+    }
+
+    @Benchmark
+    public StatementPromise frozen() {
+        return this.frozen.using(this.key);
+    }
+}
@@ -26,13 +26,16 @@ package me.lynxplay.idonis.core;
 
 import me.lynxplay.idonis.Idonis;
 import me.lynxplay.idonis.IdonisContainer;
-import me.lynxplay.idonis.core.dialect.LazyLoadIdonisContainer;
+import me.lynxplay.idonis.core.dialect.ConcurrentIdonisContainer;
 import me.lynxplay.idonis.core.dialect.StringStatementKey;
+import me.lynxplay.idonis.core.dialect.file.ResourceStringReader;
 import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
 import me.lynxplay.idonis.dialect.SQLDialect;
 import me.lynxplay.idonis.dialect.StatementKey;
 import me.lynxplay.idonis.dialect.promise.StatementPromise;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.function.Function;
@@ -53,7 +56,7 @@ public class IdonisCore implements Idonis {
      */
     @Override
     public IdonisContainer forDialect(Path idonisFolder, SQLDialect dialect, Function<Path, StatementKey> keyGenerator) {
-        return this.forDialect(idonisFolder, dialect, keyGenerator, new ValidStatementParser());
+        return this.forDialect(idonisFolder, dialect, keyGenerator, new ValidStatementParser(dialect));
     }
 
     /**
@@ -72,7 +75,33 @@ public class IdonisCore implements Idonis {
     @Override
     public IdonisContainer forDialect(Path idonisFolder, SQLDialect dialect, Function<Path, StatementKey> keyGenerator,
                                       Function<String, StatementPromise> statementParser) {
-        return new LazyLoadIdonisContainer(dialect.resolve(idonisFolder), keyGenerator, Files::readString , statementParser);
+        return new ConcurrentIdonisContainer(dialect.resolve(idonisFolder), keyGenerator, Files::readString, statementParser);
+    }
+
+    /**
+     * Returns the container reading the dialect files from class path resources, which may lie in plain folders or
+     * inside jar files. The resources below the dialect folder are indexed once when this method is called, scripts
+     * inside jar files are read into memory right away so that no archive stays open.
+     *
+     * @param classLoader the class loader to find the resources with
+     * @param resourceFolder the relative resource folder under which all of those statements lie, e.g. {@code sql}
+     * @param dialect the dialect
+     * @param keyGenerator the key generator used to fill the keys.
+     *
+     * @return the container instance.
+     *
+     * @throws UncheckedIOException if the resources could not be indexed
+     */
+    @Override
+    public IdonisContainer forResources(ClassLoader classLoader, String resourceFolder, SQLDialect dialect,
+                                        Function<Path, StatementKey> keyGenerator) {
+        Path root = dialect.resolve(Path.of(resourceFolder));
+        try {
+            ResourceStringReader reader = ResourceStringReader.open(classLoader, root.toString());
+            return new ConcurrentIdonisContainer(root, keyGenerator, reader, new ValidStatementParser(dialect));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not index resources at %s", root), e);
+        }
     }
 
     /**
@@ -0,0 +1,209 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.IdonisContainer;
+import me.lynxplay.idonis.core.dialect.file.FileStringReader;
+import me.lynxplay.idonis.core.dialect.promise.EmptyStatementPromise;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * The base of all file backed {@link IdonisContainer} implementations. It knows how to turn a {@link StatementKey}
+ * into a {@link StatementPromise} but leaves the caching strategy to its implementations
+ */
+public abstract class AbstractIdonisContainer implements IdonisContainer {
+
+    private final Path root;
+    private final Function<Path, StatementKey> keyGenerator;
+    private final FileStringReader fileStringReader;
+    private final Function<String, StatementPromise> statementParser;
+    private final ConcurrentMap<String, StatementKey> stringKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new container based on the root path
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param fileReader the file reader function
+     * @param statementParser the parser for the statements
+     */
+    protected AbstractIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, FileStringReader fileReader, Function<String, StatementPromise> statementParser) {
+        this.root = root;
+        this.keyGenerator = keyGenerator;
+        this.fileStringReader = fileReader;
+        this.statementParser = statementParser;
+    }
+
+    /**
+     * Returns the {@link StatementPromise} instance for this key. If there is not value for the specific key, this
+     * method will return an empty {@link StatementPromise} which will fail to execute on call.
+     * <p>
+     * The generated {@link StatementKey} of every string that points to an existing script is remembered, so repeated
+     * lookups of the same string neither parse a path nor allocate a new key.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the cached instance
+     */
+    @Override
+    public StatementPromise using(String key) {
+        StatementKey statementKey = this.stringKeys.get(key);
+        if (statementKey != null) return this.using(statementKey);
+
+        statementKey = this.keyGenerator.apply(Path.of(key));
+        StatementPromise promise = this.using(statementKey);
+        if (promise.isPresent()) this.stringKeys.putIfAbsent(key, statementKey); // Probing missing keys must not grow the index
+        return promise;
+    }
+
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread. Scripts that
+     * have to be loaded are loaded on the {@link LoadExecutors#defaultExecutor()}.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the future completed with the promise
+     */
+    @Override
+    public CompletableFuture<StatementPromise> usingAsync(String key) {
+        return this.usingAsync(key, LoadExecutors.defaultExecutor());
+    }
+
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread. Scripts that
+     * have to be loaded are loaded on the given executor, the string key is remembered just like by {@link
+     * #using(String)}.
+     *
+     * @param key the key to fetch against
+     * @param executor the executor to load the script on
+     *
+     * @return the future completed with the promise
+     */
+    @Override
+    public CompletableFuture<StatementPromise> usingAsync(String key, Executor executor) {
+        StatementKey statementKey = this.stringKeys.get(key);
+        if (statementKey != null) return this.usingAsync(statementKey, executor);
+
+        StatementKey generatedKey = this.keyGenerator.apply(Path.of(key));
+        return this.usingAsync(generatedKey, executor).thenApply(promise -> {
+            if (promise.isPresent()) this.stringKeys.putIfAbsent(key, generatedKey);
+            return promise;
+        });
+    }
+
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread. Scripts that
+     * have to be loaded are loaded on the {@link LoadExecutors#defaultExecutor()}.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the future completed with the promise
+     */
+    @Override
+    public CompletableFuture<StatementPromise> usingAsync(StatementKey key) {
+        return this.usingAsync(key, LoadExecutors.defaultExecutor());
+    }
+
+    /**
+     * Returns an unmodifiable view of all remembered string keys and the {@link StatementKey} they were generated into
+     *
+     * @return the string keys
+     */
+    protected Map<String, StatementKey> stringKeys() {
+        return Collections.unmodifiableMap(this.stringKeys);
+    }
+
+    /**
+     * Loads the {@link StatementPromise} for the given key without consulting any cache. If there is no script for the
+     * key, an {@link EmptyStatementPromise} is returned.
+     *
+     * @param key the key to load
+     *
+     * @return the freshly loaded promise
+     */
+    protected StatementPromise load(StatementKey key) {
+        Path resolvedPath = key.resolveFile(this.root);
+        return this.read(resolvedPath)
+                .map(this.statementParser)
+                .orElse(new EmptyStatementPromise(resolvedPath));
+    }
+
+    /**
+     * Returns the key generator of the container, that converts a path into a key
+     *
+     * @return the key function
+     */
+    @Override
+    public Function<Path, StatementKey> keyGenerator() {
+        return this.keyGenerator;
+    }
+
+    /**
+     * Returns the path this container is pointing to
+     *
+     * @return the path instance
+     */
+    @Override
+    public Path path() {
+        return this.root;
+    }
+
+    /**
+     * Returns the parser this container uses to turn script contents into {@link StatementPromise} instances
+     *
+     * @return the statement parser
+     */
+    protected Function<String, StatementPromise> statementParser() {
+        return this.statementParser;
+    }
+
+    /**
+     * Reads the content of the file at this path, or else returns an empty {@link Optional}
+     *
+     * @param path the path to read
+     *
+     * @return the {@link Optional}
+     */
+    protected Optional<String> read(Path path) {
+        try {
+            if (!this.fileStringReader.exists(path)) return Optional.empty();
+            return Optional.of(this.fileStringReader.read(path));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format("Could not read file at path %s", path.toString()), e);
+        }
+    }
+}
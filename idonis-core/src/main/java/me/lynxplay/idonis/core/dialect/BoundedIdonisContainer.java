@@ -0,0 +1,252 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.core.dialect.file.FileStringReader;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread safe lazy loading container which keeps the total weight of its cached promises below a maximum. Entries
+ * are evicted using the CLOCK algorithm, an approximation of LRU in which a hit only flips a flag on the entry. This
+ * keeps warm lookups lock free, only inserting a freshly loaded promise and the eviction it may cause are serialised.
+ * <p>
+ * Evicted keys are simply loaded again on their next lookup. Promises of missing scripts are cached and weighed like
+ * every other promise, so probing for many non existing keys cannot grow the container beyond its bound.
+ */
+public class BoundedIdonisContainer extends AbstractIdonisContainer {
+
+    private final ConcurrentMap<StatementKey, Node> wrapped = new ConcurrentHashMap<>();
+    private final InFlightLoads<StatementKey, StatementPromise> loading = new InFlightLoads<>();
+    private final long maximumWeight;
+    private final StatementWeigher weigher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final Object clockLock = new Object();
+    private Node hand; // Guarded by clockLock
+    private long weight; // Guarded by clockLock
+
+    /**
+     * Creates a new bounded container which holds at most the given amount of promises
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param statementParser the parser for the statements
+     * @param maximumSize the maximum amount of cached promises
+     */
+    public BoundedIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, Function<String, StatementPromise> statementParser,
+                                  long maximumSize) {
+        this(root, keyGenerator, Files::readString, statementParser, maximumSize, StatementWeigher.singleton());
+    }
+
+    /**
+     * Creates a new bounded container which keeps the total weight of its promises below the given maximum
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param fileReader the file reader function
+     * @param statementParser the parser for the statements
+     * @param maximumWeight the maximum total weight of all cached promises
+     * @param weigher the weigher calculating the weight of a single promise
+     */
+    public BoundedIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, FileStringReader fileReader,
+                                  Function<String, StatementPromise> statementParser, long maximumWeight, StatementWeigher weigher) {
+        super(root, keyGenerator, fileReader, statementParser);
+        if (maximumWeight < 0) throw new IllegalArgumentException("The maximum weight must not be negative");
+
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the {@link StatementPromise} instance for this key. If there is not value for the specific key, this
+     * method will return an empty {@link StatementPromise} which will fail to execute on call.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the cached instance
+     */
+    @Override
+    public StatementPromise using(StatementKey key) {
+        Node node = this.wrapped.get(key);
+        if (node != null) {
+            if (!node.referenced) node.referenced = true; // Avoid dirtying the cache line on every hit
+            this.hits.increment();
+            return node.promise;
+        }
+
+        this.misses.increment();
+        return this.loading.load(key, this::loadAndInsert);
+    }
+
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread. Cached keys
+     * complete immediately, all other keys are loaded on the given executor. Concurrent lookups of the same key share a
+     * single load.
+     *
+     * @param key the key to fetch against
+     * @param executor the executor to load the script on
+     *
+     * @return the future completed with the promise
+     */
+    @Override
+    public CompletableFuture<StatementPromise> usingAsync(StatementKey key, Executor executor) {
+        Node node = this.wrapped.get(key);
+        if (node != null) {
+            if (!node.referenced) node.referenced = true;
+            this.hits.increment();
+            return CompletableFuture.completedFuture(node.promise);
+        }
+
+        this.misses.increment();
+        return this.loading.loadAsync(key, this::loadAndInsert, executor);
+    }
+
+    /**
+     * Loads the promise of the key and inserts it into the clock, unless another thread inserted it in the meantime
+     *
+     * @param key the key to load
+     *
+     * @return the cached promise
+     */
+    private StatementPromise loadAndInsert(StatementKey key) {
+        Node present = this.wrapped.get(key);
+        if (present != null) return present.promise;
+
+        StatementPromise loaded = this.load(key);
+        int entryWeight = this.weigher.weigh(key, loaded);
+        if (entryWeight < 0) throw new IllegalStateException(String.format("Negative weight %d for %s", entryWeight, key));
+
+        this.insert(new Node(key, loaded, entryWeight));
+        return loaded;
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counters of this container
+     *
+     * @return the statistics snapshot
+     */
+    public CacheStatistics statistics() {
+        long currentWeight;
+        synchronized (this.clockLock) {
+            currentWeight = this.weight;
+        }
+        return new CacheStatistics(this.hits.sum(), this.misses.sum(), this.evictions.sum(), currentWeight);
+    }
+
+    /**
+     * Returns the maximum total weight of this container
+     *
+     * @return the maximum weight
+     */
+    public long maximumWeight() {
+        return this.maximumWeight;
+    }
+
+    /**
+     * Inserts the node behind the clock hand and evicts entries until the container respects its maximum weight again
+     *
+     * @param node the node to insert
+     */
+    private void insert(Node node) {
+        synchronized (this.clockLock) {
+            this.wrapped.put(node.key, node);
+            if (this.hand == null) {
+                node.next = node;
+                node.previous = node;
+                this.hand = node;
+            } else {
+                node.next = this.hand;
+                node.previous = this.hand.previous;
+                this.hand.previous.next = node;
+                this.hand.previous = node;
+            }
+            this.weight += node.weight;
+
+            while (this.weight > this.maximumWeight && this.hand != null) {
+                Node candidate = this.hand;
+                if (candidate.referenced) {
+                    candidate.referenced = false; // Second chance
+                    this.hand = candidate.next;
+                    continue;
+                }
+
+                this.unlink(candidate);
+                this.wrapped.remove(candidate.key, candidate);
+                this.weight -= candidate.weight;
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes the node from the clock, moving the hand forward if it pointed at the node
+     *
+     * @param node the node to remove
+     */
+    private void unlink(Node node) {
+        if (node.next == node) {
+            this.hand = null;
+        } else {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            if (this.hand == node) this.hand = node.next;
+        }
+        node.next = null;
+        node.previous = null;
+    }
+
+    /**
+     * A single cache entry, which is also a node in the circular list the clock hand walks over
+     */
+    private static final class Node {
+
+        private final StatementKey key;
+        private final StatementPromise promise;
+        private final int weight;
+        private volatile boolean referenced;
+
+        private Node next; // Guarded by clockLock
+        private Node previous; // Guarded by clockLock
+
+        private Node(StatementKey key, StatementPromise promise, int weight) {
+            this.key = key;
+            this.promise = promise;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.core.dialect.bundle.ScriptBundle;
+import me.lynxplay.idonis.core.dialect.promise.EmptyStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.nio.file.Path;
+import java.util.function.Function;
+
+/**
+ * A thread safe container backed by a memory mapped {@link ScriptBundle}. Scripts are neither read from single files
+ * nor parsed again, the first lookup of a key only decodes its bundle entry and caches the decoded promise.
+ */
+public class BundleIdonisContainer extends ConcurrentIdonisContainer {
+
+    private final ScriptBundle bundle;
+
+    /**
+     * Creates a new container reading its scripts from the bundle
+     *
+     * @param root the dialect folder the bundle was packed from, which the keys resolve their files against
+     * @param keyGenerator the key generator
+     * @param bundle the bundle holding the scripts
+     */
+    public BundleIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, ScriptBundle bundle) {
+        super(root, keyGenerator);
+        this.bundle = bundle;
+    }
+
+    /**
+     * Decodes the {@link StatementPromise} of the key from the bundle. If the bundle has no entry for the key, an
+     * {@link EmptyStatementPromise} is returned.
+     *
+     * @param key the key to load
+     *
+     * @return the decoded promise
+     */
+    @Override
+    protected StatementPromise load(StatementKey key) {
+        Path resolvedPath = key.resolveFile(this.path());
+        if (!resolvedPath.startsWith(this.path())) return new EmptyStatementPromise(resolvedPath);
+
+        ValidStatementPromise promise = this.bundle.get(ScriptBundle.entryName(this.path().relativize(resolvedPath)));
+        return promise != null ? promise : new EmptyStatementPromise(resolvedPath);
+    }
+
+    /**
+     * Returns the bundle this container reads its scripts from
+     *
+     * @return the bundle
+     */
+    public ScriptBundle bundle() {
+        return this.bundle;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+/**
+ * An immutable snapshot of the counters of a {@link BoundedIdonisContainer} or a statement cache
+ */
+public final class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long weight;
+
+    /**
+     * Creates a new statistics snapshot
+     *
+     * @param hitCount the amount of lookups that were answered from the cache
+     * @param missCount the amount of lookups that had to load the script
+     * @param evictionCount the amount of entries that were evicted
+     * @param weight the current total weight of the cache
+     */
+    public CacheStatistics(long hitCount, long missCount, long evictionCount, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.weight = weight;
+    }
+
+    /**
+     * Returns the amount of lookups that were answered from the cache
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns the amount of lookups that had to load the script
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the amount of entries that were evicted to respect the maximum weight
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * Returns the total weight of all cached entries at the time the snapshot was taken
+     *
+     * @return the weight
+     */
+    public long weight() {
+        return this.weight;
+    }
+
+    /**
+     * Returns the ratio of lookups that were answered from the cache, or one if there were no lookups yet
+     *
+     * @return the hit rate
+     */
+    public double hitRate() {
+        long requests = this.hitCount + this.missCount;
+        return requests == 0 ? 1.0 : (double) this.hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStatistics{hits: %d, misses: %d, evictions: %d, weight: %d}",
+                this.hitCount, this.missCount, this.evictionCount, this.weight);
+    }
+}
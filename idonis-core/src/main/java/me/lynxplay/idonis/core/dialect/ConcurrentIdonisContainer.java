@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.core.dialect.file.FileStringReader;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * A thread safe lazy loading container. Warm lookups are a single {@link ConcurrentHashMap#get(Object)} and never
+ * lock. The first lookup of a key loads the script on the calling thread while all other threads asking for the same
+ * key wait for that one result instead of reading and parsing the file again.
+ */
+public class ConcurrentIdonisContainer extends AbstractIdonisContainer {
+
+    private final ConcurrentMap<StatementKey, StatementPromise> wrapped = new ConcurrentHashMap<>();
+    private final InFlightLoads<StatementKey, StatementPromise> loading = new InFlightLoads<>();
+
+    /**
+     * Creates a new concurrent container based on the root path
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param statementParser the parser for the statements
+     */
+    public ConcurrentIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, Function<String, StatementPromise> statementParser) {
+        this(root, keyGenerator, Files::readString, statementParser);
+    }
+
+    /**
+     * Creates a new concurrent container based on the root path
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param fileReader the file reader function
+     * @param statementParser the parser for the statements
+     */
+    public ConcurrentIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, FileStringReader fileReader, Function<String, StatementPromise> statementParser) {
+        super(root, keyGenerator, fileReader, statementParser);
+    }
+
+    /**
+     * Creates a new concurrent container without a file reader and parser, for implementations that override {@link
+     * #load(StatementKey)} and never read single script files
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     */
+    protected ConcurrentIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator) {
+        super(root, keyGenerator, null, null);
+    }
+
+    /**
+     * Returns the {@link StatementPromise} instance for this key. If there is not value for the specific key, this
+     * method will return an empty {@link StatementPromise} which will fail to execute on call.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the cached instance
+     */
+    @Override
+    public StatementPromise using(StatementKey key) {
+        StatementPromise promise = this.wrapped.get(key);
+        if (promise != null) return promise;
+
+        return this.loading.load(key, this::loadAndCache);
+    }
+
+    /**
+     * Looks up the {@link StatementPromise} instance for this key without blocking the calling thread. Warm keys
+     * complete immediately, cold keys are loaded on the given executor. Concurrent lookups of the same cold key, both
+     * synchronous and asynchronous ones, share a single load.
+     *
+     * @param key the key to fetch against
+     * @param executor the executor to load the script on
+     *
+     * @return the future completed with the promise
+     */
+    @Override
+    public CompletableFuture<StatementPromise> usingAsync(StatementKey key, Executor executor) {
+        StatementPromise promise = this.wrapped.get(key);
+        if (promise != null) return CompletableFuture.completedFuture(promise);
+
+        return this.loading.loadAsync(key, this::loadAndCache, executor);
+    }
+
+    /**
+     * Freezes all promises cached at this moment into an immutable {@link FrozenIdonisContainer}. The snapshot does not
+     * observe any later change of this container and never loads scripts on its own.
+     *
+     * @return the frozen snapshot
+     */
+    public FrozenIdonisContainer freeze() {
+        return new FrozenIdonisContainer(this.path(), this.keyGenerator(), Map.copyOf(this.wrapped), this.stringKeys());
+    }
+
+    /**
+     * Loads the promise of the key and caches it, unless another thread cached a promise for it in the meantime
+     *
+     * @param key the key to load
+     *
+     * @return the cached promise
+     */
+    private StatementPromise loadAndCache(StatementKey key) {
+        // Another thread may have finished loading between our first lookup and registering the load
+        StatementPromise present = this.wrapped.get(key);
+        if (present != null) return present;
+
+        StatementPromise loaded = this.load(key);
+        present = this.wrapped.putIfAbsent(key, loaded);
+        return present != null ? present : loaded;
+    }
+
+    /**
+     * Stores the given promise for the key, replacing any previously cached promise. Readers either observe the old or
+     * the new promise, never anything in between.
+     *
+     * @param key the key to store the promise for
+     * @param promise the promise to store
+     */
+    protected void put(StatementKey key, StatementPromise promise) {
+        this.wrapped.put(key, promise);
+    }
+}
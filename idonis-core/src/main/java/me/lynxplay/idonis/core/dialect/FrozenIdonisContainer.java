@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.IdonisContainer;
+import me.lynxplay.idonis.core.dialect.promise.EmptyStatementPromise;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * An immutable snapshot of a warmed container. The known keys are placed into a dense array using a hash and displace
+ * perfect hash, so a lookup computes exactly one slot and compares exactly one key. The container never touches the
+ * file system again and can be shared between threads without any coordination.
+ * <p>
+ * Keys that were not known when the container was frozen resolve to an {@link EmptyStatementPromise}.
+ */
+public final class FrozenIdonisContainer implements IdonisContainer {
+
+    private final Path root;
+    private final Function<Path, StatementKey> keyGenerator;
+    private final PerfectHashTable<StatementKey, StatementPromise> promises;
+    private final PerfectHashTable<String, StatementPromise> stringPromises;
+
+    /**
+     * Freezes the given entries into a new container
+     *
+     * @param root the root the keys resolve their files against
+     * @param keyGenerator the key generator
+     * @param entries the entries of the container
+     */
+    public FrozenIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, Map<StatementKey, StatementPromise> entries) {
+        this(root, keyGenerator, entries, Map.of());
+    }
+
+    /**
+     * Freezes the given entries into a new container. The given string keys are indexed as well, so looking them up
+     * using {@link #using(String)} neither parses a path nor generates a key.
+     *
+     * @param root the root the keys resolve their files against
+     * @param keyGenerator the key generator
+     * @param entries the entries of the container
+     * @param stringKeys the string keys known to map to the given statement keys
+     */
+    public FrozenIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, Map<StatementKey, StatementPromise> entries,
+                                 Map<String, StatementKey> stringKeys) {
+        this.root = root;
+        this.keyGenerator = keyGenerator;
+        this.promises = new PerfectHashTable<>(entries);
+
+        Map<String, StatementPromise> stringEntries = new HashMap<>();
+        stringKeys.forEach((string, key) -> {
+            StatementPromise promise = entries.get(key);
+            if (promise != null) stringEntries.put(string, promise);
+        });
+        this.stringPromises = new PerfectHashTable<>(stringEntries);
+    }
+
+    /**
+     * Returns the {@link StatementPromise} instance for this key. If there is not value for the specific key, this
+     * method will return an empty {@link StatementPromise} which will fail to execute on call.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the cached instance
+     */
+    @Override
+    public StatementPromise using(String key) {
+        StatementPromise promise = this.stringPromises.get(key);
+        return promise != null ? promise : this.using(this.keyGenerator.apply(Path.of(key)));
+    }
+
+    /**
+     * Returns the {@link StatementPromise} instance for this key. If there is not value for the specific key, this
+     * method will return an empty {@link StatementPromise} which will fail to execute on call.
+     *
+     * @param key the key to fetch against
+     *
+     * @return the cached instance
+     */
+    @Override
+    public StatementPromise using(StatementKey key) {
+        StatementPromise promise = this.promises.get(key);
+        return promise != null ? promise : new EmptyStatementPromise(key.resolveFile(this.root));
+    }
+
+    /**
+     * Returns a completed future of {@link #using(String)}, as this container never has to load a script
+     *
+     * @param key the key to fetch against
+     * @param executor unused, as this container never has to load a script
+     *
+     * @return the completed future
+     */
+    @Override
+    public CompletableFuture<StatementPromise> usingAsync(String key, Executor executor) {
+        return CompletableFuture.completedFuture(this.using(key));
+    }
+
+    /**
+     * Returns a completed future of {@link #using(StatementKey)}, as this container never has to load a script
+     *
+     * @param key the key to fetch against
+     * @param executor unused, as this container never has to load a script
+     *
+     * @return the completed future
+     */
+    @Override
+    public CompletableFuture<StatementPromise> usingAsync(StatementKey key, Executor executor) {
+        return CompletableFuture.completedFuture(this.using(key));
+    }
+
+    /**
+     * Returns the amount of keys known to this container
+     *
+     * @return the amount of keys
+     */
+    public int size() {
+        return this.promises.size();
+    }
+
+    /**
+     * Returns the key generator of the container, that converts a path into a key
+     *
+     * @return the key function
+     */
+    @Override
+    public Function<Path, StatementKey> keyGenerator() {
+        return this.keyGenerator;
+    }
+
+    /**
+     * Returns the path this container is pointing to
+     *
+     * @return the path instance
+     */
+    @Override
+    public Path path() {
+        return this.root;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Deduplicates concurrent loads of the same key. The first thread asking for a key runs the loader, all other threads
+ * asking for the same key while the load is in flight wait for its result. Asynchronous loads run the loader on an
+ * executor and share the same in flight result with synchronous callers.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded values
+ */
+final class InFlightLoads<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the value for the given key or waits for the load that is already in flight for it. The loader should check
+     * the cache of the caller again, as another thread may have finished its load right before this call.
+     *
+     * @param key the key to load
+     * @param loader the loader that is invoked if no load is in flight
+     *
+     * @return the loaded value
+     */
+    V load(K key, Function<K, V> loader) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = this.loading.putIfAbsent(key, future);
+        if (inFlight != null) return await(inFlight);
+
+        try {
+            V value = loader.apply(key);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Loads the value for the given key on the executor or joins the load that is already in flight for it, no matter
+     * if that load was started synchronously or asynchronously. The returned future is a copy of the shared load, so
+     * a caller cancelling or completing it does not affect the other callers.
+     *
+     * @param key the key to load
+     * @param loader the loader that is invoked on the executor if no load is in flight
+     * @param executor the executor to run the loader on
+     *
+     * @return the future completed with the loaded value
+     */
+    CompletableFuture<V> loadAsync(K key, Function<K, V> loader, Executor executor) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = this.loading.putIfAbsent(key, future);
+        if (inFlight != null) return inFlight.copy();
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(loader.apply(key));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    this.loading.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.loading.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        return future.copy();
+    }
+
+    /**
+     * Waits for the given in flight load and rethrows the exception of the loading thread if it failed
+     *
+     * @param future the future of the loading thread
+     *
+     * @return the loaded value
+     */
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+}
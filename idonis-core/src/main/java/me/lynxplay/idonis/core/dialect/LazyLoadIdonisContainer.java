@@ -24,27 +24,25 @@
 
 package me.lynxplay.idonis.core.dialect;
 
-import me.lynxplay.idonis.IdonisContainer;
 import me.lynxplay.idonis.core.dialect.file.FileStringReader;
-import me.lynxplay.idonis.core.dialect.promise.EmptyStatementPromise;
 import me.lynxplay.idonis.dialect.StatementKey;
 import me.lynxplay.idonis.dialect.promise.StatementPromise;
 
-import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
-public class LazyLoadIdonisContainer implements IdonisContainer {
+/**
+ * A lazy loading container backed by a plain {@link HashMap}. This container is not thread safe, use the {@link
+ * ConcurrentIdonisContainer} if the container is shared between threads.
+ */
+public class LazyLoadIdonisContainer extends AbstractIdonisContainer {
 
     private Map<StatementKey, StatementPromise> wrapped = new HashMap<>();
-    private Path root;
-    private Function<Path, StatementKey> keyGenerator;
-    private FileStringReader fileStringReader;
-    private Function<String, StatementPromise> statementParser;
 
     /**
      * Creates a new idonis map based on the root path
@@ -66,10 +64,7 @@ public class LazyLoadIdonisContainer implements IdonisContainer {
      * @param statementParser the parser for the statements
      */
     public LazyLoadIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, FileStringReader fileReader, Function<String, StatementPromise> statementParser) {
-        this.root = root;
-        this.keyGenerator = keyGenerator;
-        this.fileStringReader = fileReader;
-        this.statementParser = statementParser;
+        super(root, keyGenerator, fileReader, statementParser);
     }
 
     /**
@@ -82,45 +77,20 @@ public class LazyLoadIdonisContainer implements IdonisContainer {
      */
     @Override
     public StatementPromise using(StatementKey key) {
-        Path resolvedPath = key.resolveFile(root);
-        return this.wrapped.computeIfAbsent(key, k -> this.read(resolvedPath)
-                .map(this.statementParser)
-                .orElse(new EmptyStatementPromise(resolvedPath)));
+        return this.wrapped.computeIfAbsent(key, this::load);
     }
 
     /**
-     * Returns the key generator of the container, that converts a path into a key
+     * Looks up the {@link StatementPromise} instance for this key on the calling thread, as this container is not thread
+     * safe and must not be accessed from the executor
      *
-     * @return the key function
-     */
-    @Override
-    public Function<Path, StatementKey> keyGenerator() {
-        return this.keyGenerator;
-    }
-
-    /**
-     * Returns the path this container is pointing to
+     * @param key the key to fetch against
+     * @param executor unused, as this container is not thread safe
      *
-     * @return the path instance
+     * @return the completed future
      */
     @Override
-    public Path path() {
-        return root;
-    }
-
-    /**
-     * Reads the content of the file at this path, or else returns an empty {@link Optional}
-     *
-     * @param path the path to read
-     *
-     * @return the {@link Optional}
-     */
-    private Optional<String> read(Path path) {
-        try {
-            if (!Files.exists(path) || !Files.isRegularFile(path)) return Optional.empty();
-            return Optional.of(this.fileStringReader.read(path));
-        } catch (IOException e) {
-            throw new IllegalArgumentException(String.format("Could not read file at path %s", path.toString()), e);
-        }
+    public CompletableFuture<StatementPromise> usingAsync(StatementKey key, Executor executor) {
+        return CompletableFuture.completedFuture(this.using(key));
     }
 }
@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable lookup table whose keys are placed into dense arrays using a hash and displace perfect hash. A lookup
+ * computes exactly one slot and compares exactly one key. If the keys cannot be perfectly hashed, e.g. because two
+ * distinct keys share a hash code, the table falls back to linear probing.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class PerfectHashTable<K, V> {
+
+    private static final int DISPLACEMENT_STEP = 0x9E3779B9;
+    private static final int MAX_DISPLACEMENT_ATTEMPTS = 1 << 16;
+    private static final int MAX_TABLE_GROWTHS = 4;
+
+    private final Object[] keys;
+    private final Object[] values;
+    private final int slotMask;
+    private final int[] displacements; // null if the keys could not be perfectly hashed
+    private final int bucketMask;
+    private final int size;
+
+    /**
+     * Creates a new table containing the given entries
+     *
+     * @param entries the entries of the table
+     */
+    PerfectHashTable(Map<K, V> entries) {
+        int size = entries.size();
+        int slots = tableSize(size + size / 4);
+        int buckets = tableSize(Math.max(1, size / 4));
+        List<List<Map.Entry<K, V>>> grouped = group(entries, buckets);
+
+        this.size = size;
+        int growths = distinctHashCodes(entries) ? MAX_TABLE_GROWTHS : 0;
+        for (int growth = 0; growth < growths; growth++, slots <<= 1) {
+            Object[] keys = new Object[slots];
+            Object[] values = new Object[slots];
+            int[] displacements = new int[buckets];
+            if (place(grouped, keys, values, displacements)) {
+                this.keys = keys;
+                this.values = values;
+                this.slotMask = slots - 1;
+                this.displacements = displacements;
+                this.bucketMask = buckets - 1;
+                return;
+            }
+        }
+
+        slots = tableSize(size * 2);
+        this.keys = new Object[slots];
+        this.values = new Object[slots];
+        this.slotMask = slots - 1;
+        this.displacements = null;
+        this.bucketMask = 0;
+        for (Map.Entry<K, V> entry : entries.entrySet()) {
+            int slot = mix(entry.getKey().hashCode()) & this.slotMask;
+            while (this.keys[slot] != null) slot = (slot + 1) & this.slotMask;
+            this.keys[slot] = entry.getKey();
+            this.values[slot] = entry.getValue();
+        }
+    }
+
+    /**
+     * Returns the value of the given key
+     *
+     * @param key the key to look up
+     *
+     * @return the value or null if the key is unknown
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        int hash = mix(key.hashCode());
+        if (this.displacements != null) {
+            int slot = mix(hash ^ this.displacements[hash & this.bucketMask]) & this.slotMask;
+            Object candidate = this.keys[slot];
+            return candidate == key || (candidate != null && candidate.equals(key)) ? (V) this.values[slot] : null;
+        }
+
+        for (int slot = hash & this.slotMask; this.keys[slot] != null; slot = (slot + 1) & this.slotMask) {
+            Object candidate = this.keys[slot];
+            if (candidate == key || candidate.equals(key)) return (V) this.values[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Returns the amount of entries in this table
+     *
+     * @return the amount of entries
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Tries to find a displacement for every bucket, so that all keys of the bucket land in free slots
+     *
+     * @param grouped the entries grouped by bucket, largest bucket first
+     * @param keys the key table to fill
+     * @param values the value table to fill
+     * @param displacements the displacements to fill
+     *
+     * @return if all buckets could be placed
+     */
+    private static <K, V> boolean place(List<List<Map.Entry<K, V>>> grouped, Object[] keys, Object[] values, int[] displacements) {
+        int mask = keys.length - 1;
+        for (List<Map.Entry<K, V>> bucket : grouped) {
+            if (bucket.isEmpty()) break; // Sorted by size, all following buckets are empty too
+
+            int bucketIndex = mix(bucket.get(0).getKey().hashCode()) & (displacements.length - 1);
+            int[] slots = new int[bucket.size()];
+            boolean placed = false;
+            for (int attempt = 0; attempt < MAX_DISPLACEMENT_ATTEMPTS && !placed; attempt++) {
+                int displacement = attempt * DISPLACEMENT_STEP;
+                placed = true;
+                for (int i = 0; i < slots.length && placed; i++) {
+                    slots[i] = mix(mix(bucket.get(i).getKey().hashCode()) ^ displacement) & mask;
+                    if (keys[slots[i]] != null) placed = false;
+                    for (int j = 0; j < i && placed; j++) {
+                        if (slots[j] == slots[i]) placed = false;
+                    }
+                }
+                if (placed) displacements[bucketIndex] = displacement;
+            }
+            if (!placed) return false;
+
+            for (int i = 0; i < slots.length; i++) {
+                keys[slots[i]] = bucket.get(i).getKey();
+                values[slots[i]] = bucket.get(i).getValue();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Groups the entries by their bucket and sorts the buckets by size, as large buckets are the hardest to place
+     *
+     * @param entries the entries
+     * @param buckets the amount of buckets, a power of two
+     *
+     * @return the grouped entries
+     */
+    private static <K, V> List<List<Map.Entry<K, V>>> group(Map<K, V> entries, int buckets) {
+        List<List<Map.Entry<K, V>>> grouped = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) grouped.add(new ArrayList<>());
+        for (Map.Entry<K, V> entry : entries.entrySet()) {
+            grouped.get(mix(entry.getKey().hashCode()) & (buckets - 1)).add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        grouped.sort(Comparator.comparingInt(List<Map.Entry<K, V>>::size).reversed());
+        return grouped;
+    }
+
+    /**
+     * Checks that no two keys share a hash code, in which case they could never be placed by a perfect hash
+     *
+     * @param entries the entries
+     *
+     * @return if all hash codes are distinct
+     */
+    private static boolean distinctHashCodes(Map<?, ?> entries) {
+        Set<Integer> hashCodes = new HashSet<>();
+        for (Object key : entries.keySet()) {
+            if (!hashCodes.add(key.hashCode())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the smallest power of two that is at least the given capacity
+     *
+     * @param capacity the capacity
+     *
+     * @return the table size
+     */
+    private static int tableSize(int capacity) {
+        return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Spreads the bits of the hash code, the finalizer of murmur3
+     *
+     * @param hash the hash code
+     *
+     * @return the mixed hash
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.core.dialect.file.FileStringReader;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ConcurrentIdonisContainer} that reads and parses every script found under its root while it is being
+ * constructed. The scripts are loaded in parallel on the given {@link Executor}. Keys that were not found during the
+ * preload, e.g. files created afterwards, are still loaded lazily.
+ */
+public class PreloadingIdonisContainer extends ConcurrentIdonisContainer {
+
+    private final int preloadedScripts;
+    private final Duration preloadDuration;
+
+    /**
+     * Creates a new preloading container based on the root path, which loads all scripts on the common {@link
+     * ForkJoinPool}
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param statementParser the parser for the statements
+     */
+    public PreloadingIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, Function<String, StatementPromise> statementParser) {
+        this(root, keyGenerator, Files::readString, statementParser, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new preloading container based on the root path
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param fileReader the file reader function
+     * @param statementParser the parser for the statements
+     * @param executor the executor the scripts are read and parsed on
+     *
+     * @throws IllegalArgumentException if one of the scripts could not be read
+     * @throws UncheckedIOException if the root folder could not be walked
+     */
+    public PreloadingIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, FileStringReader fileReader,
+                                     Function<String, StatementPromise> statementParser, Executor executor) {
+        super(root, keyGenerator, fileReader, statementParser);
+
+        long start = System.nanoTime();
+        Set<StatementKey> keys = this.discover();
+        try {
+            CompletableFuture.allOf(keys.stream()
+                    .map(k -> CompletableFuture.runAsync(() -> this.put(k, this.load(k)), executor))
+                    .toArray(CompletableFuture[]::new)
+            ).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        this.preloadDuration = Duration.ofNanos(System.nanoTime() - start);
+        this.preloadedScripts = keys.size();
+    }
+
+    /**
+     * Returns the amount of scripts that were loaded while constructing this container
+     *
+     * @return the amount of preloaded scripts
+     */
+    public int preloadedScripts() {
+        return this.preloadedScripts;
+    }
+
+    /**
+     * Returns how long it took to discover, read and parse all preloaded scripts
+     *
+     * @return the duration of the preload
+     */
+    public Duration preloadDuration() {
+        return this.preloadDuration;
+    }
+
+    /**
+     * Walks the root folder and generates the keys of all found script files
+     *
+     * @return the distinct keys
+     */
+    private Set<StatementKey> discover() {
+        Path root = this.path();
+        if (!Files.isDirectory(root)) return Set.of();
+
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .map(p -> this.keyGenerator().apply(root.relativize(p)))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not walk the idonis folder %s", root), e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.core.dialect.file.FileStringReader;
+import me.lynxplay.idonis.core.dialect.promise.EmptyStatementPromise;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ConcurrentIdonisContainer} that watches its root folder using a {@link WatchService}. Whenever a script is
+ * created, modified or deleted, the script is loaded again on a background thread and the freshly parsed promise
+ * replaces the cached one. Readers never block on a reload and either see the old or the new promise. Deleted scripts
+ * are replaced by an {@link EmptyStatementPromise}.
+ * <p>
+ * The container owns a daemon thread and must be closed once it is no longer used.
+ */
+public class ReloadingIdonisContainer extends ConcurrentIdonisContainer implements AutoCloseable {
+
+    private final WatchService watchService;
+
+    /**
+     * Creates a new reloading container based on the root path
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param statementParser the parser for the statements
+     *
+     * @throws UncheckedIOException if the root folder could not be watched
+     */
+    public ReloadingIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, Function<String, StatementPromise> statementParser) {
+        this(root, keyGenerator, Files::readString, statementParser);
+    }
+
+    /**
+     * Creates a new reloading container based on the root path
+     *
+     * @param root the root
+     * @param keyGenerator the key generator
+     * @param fileReader the file reader function
+     * @param statementParser the parser for the statements
+     *
+     * @throws UncheckedIOException if the root folder could not be watched
+     */
+    public ReloadingIdonisContainer(Path root, Function<Path, StatementKey> keyGenerator, FileStringReader fileReader, Function<String, StatementPromise> statementParser) {
+        super(root, keyGenerator, fileReader, statementParser);
+        try {
+            this.watchService = root.getFileSystem().newWatchService();
+            this.register(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not watch the idonis folder %s", root), e);
+        }
+
+        Thread watcher = new Thread(this::watch, String.format("idonis-reload-%s", root.getFileName()));
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the root folder. Already cached promises stay valid and unknown keys are still loaded lazily.
+     *
+     * @throws IOException if the watch service could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+    }
+
+    /**
+     * Registers the folder and all of its sub folders on the watch service
+     *
+     * @param folder the folder to register
+     *
+     * @throws IOException if the folder could not be walked or registered
+     */
+    private void register(Path folder) throws IOException {
+        Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * The loop of the watcher thread. Events are coalesced per poll so a file that was written in several steps is only
+     * parsed once, and all reloads run on this thread so they can never be applied out of order.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey watchKey = this.watchService.take();
+                Set<Path> changed = new LinkedHashSet<>();
+                do {
+                    this.collect(watchKey, changed);
+                } while ((watchKey = this.watchService.poll()) != null);
+
+                changed.forEach(this::reload);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // The container was closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Collects the paths of all events of the watch key and resets it
+     *
+     * @param watchKey the signalled watch key
+     * @param changed the set to add the changed files to
+     */
+    private void collect(WatchKey watchKey, Set<Path> changed) {
+        Path folder = (Path) watchKey.watchable();
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                this.collectAll(changed); // Events were lost, reload everything we can find
+                continue;
+            }
+
+            Path file = folder.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(file)) {
+                try {
+                    this.register(file);
+                } catch (IOException e) {
+                    continue; // The folder vanished again before it could be registered
+                }
+                this.collectAll(file, changed);
+                continue;
+            }
+            changed.add(file);
+        }
+        watchKey.reset();
+    }
+
+    /**
+     * Collects all files under the root folder
+     *
+     * @param changed the set to add the files to
+     */
+    private void collectAll(Set<Path> changed) {
+        this.collectAll(this.path(), changed);
+    }
+
+    /**
+     * Collects all files under the given folder
+     *
+     * @param folder the folder to walk
+     * @param changed the set to add the files to
+     */
+    private void collectAll(Path folder, Set<Path> changed) {
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.filter(Files::isRegularFile).forEach(changed::add);
+        } catch (IOException | UncheckedIOException e) {
+            // The folder was modified while walking it, the pending events will cover the rest
+        }
+    }
+
+    /**
+     * Loads the script of the given file again and swaps it into the container
+     *
+     * @param file the file that changed
+     */
+    private void reload(Path file) {
+        if (Files.isDirectory(file)) return;
+
+        StatementKey key = this.keyGenerator().apply(this.path().relativize(file));
+        try {
+            this.put(key, this.load(key));
+        } catch (RuntimeException e) {
+            // The file could not be read, e.g. because it is still being written. The old promise stays in place and
+            // the next event of the file will trigger another attempt.
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+/**
+ * Calculates the weight of a cached {@link StatementPromise}, which is used by the {@link BoundedIdonisContainer} to
+ * decide when to evict entries
+ */
+@FunctionalInterface
+public interface StatementWeigher {
+
+    /**
+     * Returns the weight of the given cache entry. The weight must not be negative and must not change while the entry
+     * is cached.
+     *
+     * @param key the key of the entry
+     * @param promise the cached promise
+     *
+     * @return the weight of the entry
+     */
+    int weigh(StatementKey key, StatementPromise promise);
+
+    /**
+     * Returns a weigher that weighs every entry as one, which bounds a container by its amount of entries
+     *
+     * @return the weigher
+     */
+    static StatementWeigher singleton() {
+        return (key, promise) -> 1;
+    }
+
+    /**
+     * Returns a weigher that weighs every entry by the length of its SQL text. Promises without any SQL text, like the
+     * ones of missing scripts, weigh one.
+     *
+     * @return the weigher
+     */
+    static StatementWeigher sqlLength() {
+        return (key, promise) -> promise instanceof ValidStatementPromise
+                ? Math.max(1, ((ValidStatementPromise) promise).getRawContent().length())
+                : 1;
+    }
+}
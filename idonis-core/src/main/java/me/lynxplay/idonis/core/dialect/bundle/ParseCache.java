@@ -0,0 +1,212 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.bundle;
+
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A statement parser that remembers the parsed scripts in a cache file, so later processes skip parsing scripts that
+ * did not change. Entries are keyed by the SHA-256 hash of the parser id and the script content, changed scripts
+ * therefore simply miss the cache and are parsed again.
+ * <p>
+ * The cache file is a {@link ScriptBundle}. A missing or unreadable cache file is treated as an empty cache. The cache
+ * only stores {@link ValidStatementPromise}s, all other promises created by the parser are passed through untouched.
+ * Saving the cache only writes the entries used since it was opened, so the file holds the scripts of the last run and
+ * does not grow with every changed script.
+ */
+public class ParseCache implements Function<String, StatementPromise>, Closeable {
+
+    private final Path file;
+    private final String parserId;
+    private final Function<String, StatementPromise> statementParser;
+    private final ScriptBundle persisted;
+    private final ConcurrentMap<String, ValidStatementPromise> used = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a new cache
+     *
+     * @param file the cache file
+     * @param parserId the id of the parser
+     * @param statementParser the parser to parse scripts with that miss the cache
+     * @param persisted the cache entries read from the cache file
+     */
+    private ParseCache(Path file, String parserId, Function<String, StatementPromise> statementParser, ScriptBundle persisted) {
+        this.file = file;
+        this.parserId = parserId;
+        this.statementParser = statementParser;
+        this.persisted = persisted;
+    }
+
+    /**
+     * Opens the cache stored in the given file, using the {@link ValidStatementParser#id()} as parser id. Other parsers
+     * have to pass an explicit id to {@link #open(Path, String, Function)}.
+     *
+     * @param file the cache file, which does not have to exist yet
+     * @param statementParser the parser to parse scripts with that miss the cache
+     *
+     * @return the opened cache
+     */
+    public static ParseCache open(Path file, ValidStatementParser statementParser) {
+        return open(file, statementParser.id(), statementParser);
+    }
+
+    /**
+     * Opens the cache stored in the given file. The parser id is part of every cache key, changing it whenever the
+     * parser creates different promises for the same script invalidates all cached entries.
+     *
+     * @param file the cache file, which does not have to exist yet
+     * @param parserId the id of the parser
+     * @param statementParser the parser to parse scripts with that miss the cache
+     *
+     * @return the opened cache
+     */
+    public static ParseCache open(Path file, String parserId, Function<String, StatementPromise> statementParser) {
+        ScriptBundle persisted = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                persisted = ScriptBundle.read(file);
+            } catch (IOException e) {
+                // The cache only saves time, a broken cache file is replaced on the next save
+            }
+        }
+        return new ParseCache(file, parserId, statementParser, persisted);
+    }
+
+    /**
+     * Returns the promise of the script, either decoded from the cache file or freshly parsed
+     *
+     * @param source the content of the script
+     *
+     * @return the promise instance
+     */
+    @Override
+    public StatementPromise apply(String source) {
+        String key = this.key(source);
+        ValidStatementPromise cached = this.used.get(key);
+        if (cached == null && this.persisted != null) {
+            try {
+                cached = this.persisted.get(key);
+            } catch (IllegalArgumentException e) {
+                cached = null; // A corrupt entry is parsed again and replaced on the next save
+            }
+        }
+
+        if (cached != null) {
+            this.hits.increment();
+            this.used.putIfAbsent(key, cached);
+            return cached;
+        }
+
+        this.misses.increment();
+        StatementPromise promise = this.statementParser.apply(source);
+        if (promise instanceof ValidStatementPromise) this.used.put(key, (ValidStatementPromise) promise);
+        return promise;
+    }
+
+    /**
+     * Writes the cache file with the entries used since the cache was opened, dropping the entries of scripts that
+     * changed, were removed or simply were not loaded in this run. The file is left untouched if no script was looked up
+     * or if it already holds exactly the used entries.
+     *
+     * @throws IOException if the cache file could not be written
+     */
+    public void save() throws IOException {
+        if (this.used.isEmpty()) return;
+        if (this.misses.sum() == 0 && this.persisted != null && this.persisted.size() == this.used.size()) return;
+
+        ScriptBundle.write(this.file, new HashMap<>(this.used));
+    }
+
+    /**
+     * Returns how many scripts were found in the cache
+     *
+     * @return the amount of hits
+     */
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns how many scripts had to be parsed
+     *
+     * @return the amount of misses
+     */
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Saves the cache, see {@link #save()}
+     *
+     * @throws IOException if the cache file could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.save();
+    }
+
+    /**
+     * Computes the cache key of the script
+     *
+     * @param source the content of the script
+     *
+     * @return the hex encoded hash of the parser id and the script
+     */
+    private String key(String source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every java platform has to support SHA-256", e);
+        }
+        digest.update(this.parserId.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = Character.forDigit((hash[i] >> 4) & 0xF, 16);
+            hex[i * 2 + 1] = Character.forDigit(hash[i] & 0xF, 16);
+        }
+        return new String(hex);
+    }
+}
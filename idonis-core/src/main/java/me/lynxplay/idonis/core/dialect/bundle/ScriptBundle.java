@@ -0,0 +1,344 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.bundle;
+
+import me.lynxplay.idonis.core.dialect.file.FileStringReader;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A single file holding all parsed scripts of a dialect folder. The file is mapped into memory using {@link
+ * FileChannel#map(FileChannel.MapMode, long, long)}, so opening a bundle costs a single open and map no matter how many
+ * scripts it contains. Entries are only decoded when they are looked up.
+ * <p>
+ * A bundle starts with a header of three {@code int}s, the magic number, the format version and the amount of
+ * entries. The header is followed by the entry table, which holds the {@link String#hashCode()} of the entry name, the
+ * offset and length of the UTF-8 encoded name and the offset and length of the promise encoded by the {@link
+ * StatementCodec} for every entry. The table is sorted by the hash, so entries are found by a binary search. The names
+ * and afterwards the encoded promises follow the table.
+ */
+public final class ScriptBundle {
+
+    private static final int MAGIC = 0x49444E42; // IDNB
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int ENTRY_BYTES = 5 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    /**
+     * Creates a new bundle view of the buffer
+     *
+     * @param buffer the buffer holding the whole bundle
+     *
+     * @throws IOException if the buffer does not hold a bundle
+     */
+    private ScriptBundle(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) throw new IOException("Not a script bundle");
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(String.format("Unsupported script bundle version %d", buffer.getInt(4)));
+        }
+
+        this.size = buffer.getInt(8);
+        if (this.size < 0 || this.size > (buffer.limit() - HEADER_BYTES) / ENTRY_BYTES) {
+            throw new IOException(String.format("Invalid amount of entries %d", this.size));
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens the bundle stored in the given file by mapping it into memory. The mapping stays valid until the returned
+     * instance is garbage collected, the file itself is closed when this method returns.
+     *
+     * @param file the bundle file
+     *
+     * @return the opened bundle
+     *
+     * @throws IOException if the file could not be mapped or does not hold a bundle
+     */
+    public static ScriptBundle open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException(String.format("Script bundle %s is too large", file));
+            return new ScriptBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Opens the bundle stored in the given file by reading it into the heap. Other than a {@link #open(Path) mapped}
+     * bundle, the file can be replaced while the returned bundle is still in use on every platform.
+     *
+     * @param file the bundle file
+     *
+     * @return the read bundle
+     *
+     * @throws IOException if the file could not be read or does not hold a bundle
+     */
+    public static ScriptBundle read(Path file) throws IOException {
+        return new ScriptBundle(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /**
+     * Parses all scripts below the dialect folder and writes them into a new bundle
+     *
+     * @param dialectFolder the dialect folder to pack
+     * @param target the bundle file to write
+     * @param fileReader the reader used to read the scripts
+     * @param statementParser the parser for the statements, which has to create {@link ValidStatementPromise}s
+     *
+     * @throws IOException if the folder could not be walked or the bundle could not be written
+     */
+    public static void pack(Path dialectFolder, Path target, FileStringReader fileReader, Function<String, StatementPromise> statementParser) throws IOException {
+        List<Path> scripts;
+        try (Stream<Path> files = Files.walk(dialectFolder)) {
+            scripts = files.filter(Files::isRegularFile).filter(p -> !p.equals(target)).collect(Collectors.toList());
+        }
+
+        Map<String, ValidStatementPromise> entries = new LinkedHashMap<>();
+        for (Path script : scripts) {
+            StatementPromise promise = statementParser.apply(fileReader.read(script));
+            if (!(promise instanceof ValidStatementPromise)) {
+                throw new IllegalArgumentException(String.format("The parser did not create a valid promise for %s", script));
+            }
+            entries.put(entryName(dialectFolder.relativize(script)), (ValidStatementPromise) promise);
+        }
+        write(target, entries);
+    }
+
+    /**
+     * Writes the entries into a new bundle. The bundle is written next to the target first and moved into place
+     * afterwards, so readers never observe a partially written bundle.
+     *
+     * @param target the bundle file to write
+     * @param entries the entries, keyed by their {@link #entryName(Path)}
+     *
+     * @throws IOException if the bundle could not be written
+     */
+    public static void write(Path target, Map<String, ValidStatementPromise> entries) throws IOException {
+        List<Map.Entry<String, ValidStatementPromise>> sorted = new ArrayList<>(entries.entrySet());
+        sorted.sort(Comparator.comparingInt((Map.Entry<String, ValidStatementPromise> e) -> e.getKey().hashCode())
+                .thenComparing(Map.Entry::getKey));
+
+        List<byte[]> names = new ArrayList<>(sorted.size());
+        List<byte[]> data = new ArrayList<>(sorted.size());
+        long nameOffset = HEADER_BYTES + (long) sorted.size() * ENTRY_BYTES;
+        long dataOffset = nameOffset;
+        for (Map.Entry<String, ValidStatementPromise> entry : sorted) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            data.add(StatementCodec.encode(entry.getValue()));
+            dataOffset += name.length;
+        }
+
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sorted.size());
+
+                for (int i = 0; i < sorted.size(); i++) {
+                    out.writeInt(sorted.get(i).getKey().hashCode());
+                    out.writeInt(checkedOffset(nameOffset));
+                    out.writeInt(names.get(i).length);
+                    out.writeInt(checkedOffset(dataOffset));
+                    out.writeInt(data.get(i).length);
+                    nameOffset += names.get(i).length;
+                    dataOffset += data.get(i).length;
+                }
+                checkedOffset(dataOffset);
+
+                for (byte[] name : names) out.write(name);
+                for (byte[] encoded : data) out.write(encoded);
+            }
+            move(temporary, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up and decodes the entry with the given name
+     *
+     * @param name the name of the entry, as created by {@link #entryName(Path)}
+     *
+     * @return the decoded promise or null if the bundle does not contain the entry
+     *
+     * @throws IllegalArgumentException if the entry is corrupt
+     */
+    public ValidStatementPromise get(String name) {
+        int hash = name.hashCode();
+        int low = 0;
+        int high = this.size - 1;
+        while (low <= high) { // Find the first entry of the hash
+            int middle = (low + high) >>> 1;
+            if (this.buffer.getInt(entry(middle)) < hash) low = middle + 1;
+            else high = middle - 1;
+        }
+
+        byte[] encodedName = null;
+        for (int i = low; i < this.size && this.buffer.getInt(entry(i)) == hash; i++) {
+            if (encodedName == null) encodedName = name.getBytes(StandardCharsets.UTF_8);
+            if (this.nameEquals(i, encodedName)) {
+                ByteBuffer data = this.slice(this.buffer.getInt(entry(i) + 12), this.buffer.getInt(entry(i) + 16));
+                return StatementCodec.decode(data);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the names of all entries in the order they are stored in
+     *
+     * @return the entry names
+     */
+    public List<String> names() {
+        List<String> names = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            ByteBuffer name = this.slice(this.buffer.getInt(entry(i) + 4), this.buffer.getInt(entry(i) + 8));
+            names.add(StandardCharsets.UTF_8.decode(name).toString());
+        }
+        return names;
+    }
+
+    /**
+     * Returns the amount of entries in this bundle
+     *
+     * @return the amount of entries
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Converts a path relative to the dialect folder into the name of its bundle entry, which always uses {@code /} as
+     * separator
+     *
+     * @param relativePath the relative path
+     *
+     * @return the entry name
+     */
+    public static String entryName(Path relativePath) {
+        StringBuilder builder = new StringBuilder();
+        for (Path name : relativePath.normalize()) {
+            if (builder.length() > 0) builder.append('/');
+            builder.append(name);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Compares the name of the entry with the encoded name
+     *
+     * @param index the index of the entry
+     * @param encodedName the UTF-8 encoded name
+     *
+     * @return if the names are equal
+     */
+    private boolean nameEquals(int index, byte[] encodedName) {
+        int offset = this.buffer.getInt(entry(index) + 4);
+        if (this.buffer.getInt(entry(index) + 8) != encodedName.length) return false;
+        for (int i = 0; i < encodedName.length; i++) {
+            if (this.buffer.get(offset + i) != encodedName[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates an independent view of a region of the bundle, so concurrent readers do not share a position
+     *
+     * @param offset the offset of the region
+     * @param length the length of the region
+     *
+     * @return the view
+     */
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer view = this.buffer.duplicate();
+        view.limit(offset + length).position(offset);
+        return view;
+    }
+
+    /**
+     * Returns the offset of the entry in the entry table
+     *
+     * @param index the index of the entry
+     *
+     * @return the offset
+     */
+    private static int entry(int index) {
+        return HEADER_BYTES + index * ENTRY_BYTES;
+    }
+
+    /**
+     * Verifies the offset still fits into a bundle, which has to be addressable by an {@code int}
+     *
+     * @param offset the offset
+     *
+     * @return the offset
+     */
+    private static int checkedOffset(long offset) {
+        if (offset > Integer.MAX_VALUE) throw new IllegalArgumentException("The scripts do not fit into a single bundle");
+        return (int) offset;
+    }
+
+    /**
+     * Moves the written bundle into place, atomically if the file system supports it
+     *
+     * @param source the written bundle
+     * @param target the target of the bundle
+     *
+     * @throws IOException if the bundle could not be moved
+     */
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.bundle;
+
+import me.lynxplay.idonis.core.dialect.promise.ParameterTable;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes an already parsed {@link ValidStatementPromise} into a compact binary form and back, so the parser does not
+ * have to run again when the promise is read from disk.
+ * <p>
+ * An encoded promise consists of the length of the UTF-8 encoded SQL followed by its bytes, the amount of variables
+ * and for every variable its index, the amount of {@code ?} it is set on and those indices. The promise ends with the
+ * amount of declared variable names and every name as length followed by its UTF-8 bytes, and the amount of known
+ * positions of the {@code ?} in the SQL followed by those positions. All numbers are big endian {@code int}s.
+ */
+public final class StatementCodec {
+
+    private StatementCodec() {
+    }
+
+    /**
+     * Encodes the promise into its binary form
+     *
+     * @param promise the promise to encode
+     *
+     * @return the encoded bytes
+     */
+    public static byte[] encode(ValidStatementPromise promise) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            byte[] sql = promise.getRawContent().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(sql.length);
+            out.write(sql);
+
+            ParameterTable table = promise.getParameterTable();
+            int variables = 0;
+            for (int i = 1; i <= table.declaredCount(); i++) {
+                if (table.start(i) != table.end(i)) variables++;
+            }
+
+            out.writeInt(variables);
+            for (int i = 1; i <= table.declaredCount(); i++) {
+                if (table.start(i) == table.end(i)) continue;
+                out.writeInt(i);
+                out.writeInt(table.end(i) - table.start(i));
+                for (int j = table.start(i); j < table.end(i); j++) out.writeInt(table.real(j));
+            }
+
+            out.writeInt(promise.getVariables().size());
+            for (String variable : promise.getVariables()) {
+                byte[] name = variable.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+            }
+
+            int[] positions = promise.getParameterPositions();
+            out.writeInt(positions == null ? 0 : positions.length);
+            if (positions != null) {
+                for (int position : positions) out.writeInt(position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Writing into a byte array never fails
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a promise starting at the current position of the buffer. The position of the buffer is moved behind the
+     * decoded promise.
+     *
+     * @param buffer the buffer to read from
+     *
+     * @return the decoded promise
+     *
+     * @throws IllegalArgumentException if the buffer does not contain a valid encoded promise
+     */
+    public static ValidStatementPromise decode(ByteBuffer buffer) {
+        try {
+            byte[] sql = new byte[checkedLength(buffer.getInt(), buffer.remaining())];
+            buffer.get(sql);
+
+            int variables = checkedLength(buffer.getInt(), buffer.remaining() / 8);
+            Map<Integer, List<Integer>> replacement = new HashMap<>(variables * 2);
+            for (int i = 0; i < variables; i++) {
+                int variable = buffer.getInt();
+                int size = checkedLength(buffer.getInt(), buffer.remaining() / 4);
+                List<Integer> indices = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) indices.add(buffer.getInt());
+                replacement.put(variable, indices);
+            }
+
+            int names = checkedLength(buffer.getInt(), buffer.remaining() / 4);
+            List<String> declared = new ArrayList<>(names);
+            for (int i = 0; i < names; i++) {
+                byte[] name = new byte[checkedLength(buffer.getInt(), buffer.remaining())];
+                buffer.get(name);
+                declared.add(new String(name, StandardCharsets.UTF_8));
+            }
+
+            ParameterTable table = ParameterTable.of(replacement);
+            int[] positions = new int[checkedLength(buffer.getInt(), buffer.remaining() / 4)];
+            for (int i = 0; i < positions.length; i++) positions[i] = buffer.getInt();
+            return new ValidStatementPromise(
+                    new String(sql, StandardCharsets.UTF_8), table, declared, positions.length == table.parameterCount() ? positions : null
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Could not decode the encoded statement", e);
+        }
+    }
+
+    /**
+     * Verifies a decoded length, so corrupt input cannot make us allocate huge arrays
+     *
+     * @param length the decoded length
+     * @param maximum the largest length the remaining input can hold
+     *
+     * @return the length
+     */
+    private static int checkedLength(int length, int maximum) {
+        if (length < 0 || length > maximum) {
+            throw new IllegalArgumentException(String.format("Invalid length %d, at most %d expected", length, maximum));
+        }
+        return length;
+    }
+}
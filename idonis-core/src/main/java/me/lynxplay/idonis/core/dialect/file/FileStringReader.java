@@ -25,6 +25,7 @@
 package me.lynxplay.idonis.core.dialect.file;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -45,4 +46,15 @@ public interface FileStringReader {
      */
     String read(Path path) throws IOException;
 
+    /**
+     * Returns if there is a readable file at the given path. Containers call this before every {@link #read(Path)} of a
+     * script they do not know yet, readers backed by an index should therefore answer it without touching the disk.
+     *
+     * @param path the path to check
+     *
+     * @return if the path points to a regular file
+     */
+    default boolean exists(Path path) {
+        return Files.isRegularFile(path);
+    }
 }
@@ -0,0 +1,211 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * A {@link FileStringReader} that reads scripts from class path resources, either from plain folders or from inside
+ * jar files. All scripts below the resource folder are indexed once when the reader is opened, afterwards {@link
+ * #exists(Path)} is a map lookup. Files in plain folders are read from disk on {@link #read(Path)}, while the entries of
+ * jar files are read into memory while indexing, so no archive stays open once the reader was opened.
+ * <p>
+ * The paths passed to this reader are relative resource paths, e.g. {@code sql-scripts/sqlite/insert.sql}. The resource
+ * folder is located through {@link
+ * ClassLoader#getResources(String)}, jar files therefore need to contain directory entries, which all common build
+ * tools write.
+ */
+public class ResourceStringReader implements FileStringReader {
+
+    private final Map<String, Entry> index;
+
+    private ResourceStringReader(Map<String, Entry> index) {
+        this.index = index;
+    }
+
+    /**
+     * Opens a new reader and indexes all scripts found in the given resource folder. If the folder exists in several
+     * class path roots, the entries of the root found first by the class loader take precedence.
+     *
+     * @param classLoader the class loader to find the resource folder with
+     * @param resourceFolder the relative resource folder, e.g. {@code sql-scripts/sqlite}
+     *
+     * @return the opened reader
+     *
+     * @throws IOException if the class path could not be searched or one of the archives could not be read
+     */
+    public static ResourceStringReader open(ClassLoader classLoader, String resourceFolder) throws IOException {
+        String folder = resourceName(Path.of(resourceFolder));
+        Map<String, Entry> index = new HashMap<>();
+
+        try {
+            Enumeration<URL> roots = classLoader.getResources(folder);
+            while (roots.hasMoreElements()) {
+                URL url = roots.nextElement();
+                if ("file".equals(url.getProtocol())) {
+                    indexFolder(Path.of(url.toURI()), folder, index);
+                } else if ("jar".equals(url.getProtocol())) {
+                    indexJar(url, folder, index);
+                } else {
+                    throw new IOException(String.format("Cannot index resources of protocol %s at %s", url.getProtocol(), url));
+                }
+            }
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+
+        return new ResourceStringReader(index);
+    }
+
+    /**
+     * Reads the content of the resource located at the given path. If there is no such resource, the returned String
+     * will be null
+     *
+     * @param path the relative resource path
+     *
+     * @return the content of the resource as a string.
+     *
+     * @throws IOException if the indexed resource could not be read
+     */
+    @Override
+    public String read(Path path) throws IOException {
+        Entry entry = this.index.get(resourceName(path));
+        return entry == null ? null : entry.read();
+    }
+
+    /**
+     * Returns if the index contains a resource at the given path
+     *
+     * @param path the relative resource path
+     *
+     * @return if the resource exists
+     */
+    @Override
+    public boolean exists(Path path) {
+        return this.index.containsKey(resourceName(path));
+    }
+
+    /**
+     * Returns the amount of indexed resources
+     *
+     * @return the amount of resources
+     */
+    public int size() {
+        return this.index.size();
+    }
+
+    /**
+     * Indexes all regular files below the folder
+     *
+     * @param root the folder on the file system
+     * @param folder the resource name of the folder
+     * @param index the index to add the files to
+     *
+     * @throws IOException if the folder could not be walked
+     */
+    private static void indexFolder(Path root, String folder, Map<String, Entry> index) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(p -> index.putIfAbsent(
+                    folder + "/" + resourceName(root.relativize(p)),
+                    () -> Files.readString(p)
+            ));
+        }
+    }
+
+    /**
+     * Reads all entries of the jar file below the folder into the index and closes the jar file afterwards
+     *
+     * @param url the url of the folder inside the jar file
+     * @param folder the resource name of the folder
+     * @param index the index to add the entries to
+     *
+     * @throws IOException if the jar file could not be opened or read
+     */
+    private static void indexJar(URL url, String folder, Map<String, Entry> index) throws IOException {
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false); // Otherwise the jar file would be shared and could not be closed by us
+
+        String prefix = folder + "/";
+        try (JarFile jarFile = ((JarURLConnection) connection).getJarFile()) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !entry.getName().startsWith(prefix) || index.containsKey(entry.getName())) {
+                    continue;
+                }
+                try (InputStream stream = jarFile.getInputStream(entry)) {
+                    String content = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+                    index.put(entry.getName(), () -> content);
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts the relative path into a resource name, which always uses {@code /} as separator
+     *
+     * @param path the relative path
+     *
+     * @return the resource name
+     */
+    private static String resourceName(Path path) {
+        Path normalized = path.normalize();
+        StringBuilder builder = new StringBuilder();
+        for (Path name : normalized) {
+            if (builder.length() > 0) builder.append('/');
+            builder.append(name);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A single indexed resource
+     */
+    private interface Entry {
+
+        /**
+         * Reads the content of the resource
+         *
+         * @return the content
+         *
+         * @throws IOException if the resource could not be read
+         */
+        String read() throws IOException;
+    }
+}
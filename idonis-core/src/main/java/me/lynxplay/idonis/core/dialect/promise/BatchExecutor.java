@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+
+/**
+ * Binds rows onto a single prepared statement and executes them in batches of a fixed size, so an import of any size
+ * keeps at most one batch in memory and needs one round trip per batch.
+ */
+final class BatchExecutor {
+
+    private BatchExecutor() {
+    }
+
+    /**
+     * Executes all rows in batches
+     *
+     * @param promise the promise to prepare the statement from
+     * @param connection the connection to prepare the statement on
+     * @param rows the rows to bind
+     * @param binder the binder setting the values of a row
+     * @param batchSize the maximum amount of rows per batch
+     * @param commitPerBatch if the connection should be committed after every batch, which is skipped while the
+     *         connection is in auto commit mode
+     * @param <T> the type of the rows
+     *
+     * @return the aggregated result
+     *
+     * @throws SQLException if a row could not be bound, a batch failed or could not be committed. Batches committed
+     *         before the failure stay committed.
+     */
+    static <T> BatchResult execute(ValidStatementPromise promise, Connection connection, Iterator<? extends T> rows,
+                                   StatementBinder<? super T> binder, int batchSize, boolean commitPerBatch) throws SQLException {
+        if (batchSize < 1) throw new IllegalArgumentException(String.format("Invalid batch size %d", batchSize));
+        boolean commit = commitPerBatch && !connection.getAutoCommit();
+
+        long executed = 0;
+        int batches = 0;
+        long updateCount = 0;
+        long unknownCounts = 0;
+        try (PreparedStatement statement = promise.prepare(connection)) {
+            int pending = 0;
+            while (rows.hasNext()) {
+                binder.bind(statement, rows.next());
+                statement.addBatch();
+                if (++pending < batchSize && rows.hasNext()) continue;
+
+                for (int count : statement.executeBatch()) {
+                    if (count >= 0) updateCount += count;
+                    else if (count == Statement.SUCCESS_NO_INFO) unknownCounts++;
+                }
+                if (commit) connection.commit();
+                executed += pending;
+                batches++;
+                pending = 0;
+            }
+        }
+        return new BatchResult(executed, batches, updateCount, unknownCounts);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.sql.Statement;
+
+/**
+ * The aggregated outcome of a chunked batch execution. Only sums are kept, so the result of an import stays small no
+ * matter how many rows were executed.
+ */
+public final class BatchResult {
+
+    private final long rows;
+    private final int batches;
+    private final long updateCount;
+    private final long unknownCounts;
+
+    /**
+     * Creates a new result
+     *
+     * @param rows the amount of executed rows
+     * @param batches the amount of executed batches
+     * @param updateCount the sum of all reported update counts
+     * @param unknownCounts the amount of rows the driver reported {@link Statement#SUCCESS_NO_INFO} for
+     */
+    public BatchResult(long rows, int batches, long updateCount, long unknownCounts) {
+        this.rows = rows;
+        this.batches = batches;
+        this.updateCount = updateCount;
+        this.unknownCounts = unknownCounts;
+    }
+
+    /**
+     * Returns the amount of rows that were bound and executed
+     *
+     * @return the amount of rows
+     */
+    public long rows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the amount of batches that were executed, i.e. the amount of round trips to the database
+     *
+     * @return the amount of batches
+     */
+    public int batches() {
+        return this.batches;
+    }
+
+    /**
+     * Returns the sum of all update counts the driver reported
+     *
+     * @return the total update count
+     */
+    public long updateCount() {
+        return this.updateCount;
+    }
+
+    /**
+     * Returns the amount of rows the driver executed successfully without reporting their update count
+     *
+     * @return the amount of rows without an update count
+     */
+    public long unknownCounts() {
+        return this.unknownCounts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchResult{rows=%d, batches=%d, updateCount=%d, unknownCounts=%d}", this.rows, this.batches, this.updateCount, this.unknownCounts);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The immutable table resolving the column labels of a result set to their index. The labels are placed into the same
+ * perfect hash table the {@link VariableNames} use, so resolving a label passed as string literal costs a hash code
+ * lookup and an identity check. Labels that only match ignoring their case, as JDBC allows, are found by a slower scan.
+ */
+public final class ColumnIndex {
+
+    private final List<String> labels;
+    private final VariableNames names;
+
+    private ColumnIndex(List<String> labels) {
+        this.labels = List.copyOf(labels);
+        this.names = VariableNames.of(this.labels);
+    }
+
+    /**
+     * Creates the index of the columns of the result set
+     *
+     * @param metaData the meta data of the result set
+     *
+     * @return the index
+     *
+     * @throws SQLException if the meta data could not be read
+     */
+    public static ColumnIndex of(ResultSetMetaData metaData) throws SQLException {
+        List<String> labels = new ArrayList<>(metaData.getColumnCount());
+        for (int i = 1; i <= metaData.getColumnCount(); i++) labels.add(metaData.getColumnLabel(i));
+        return new ColumnIndex(labels);
+    }
+
+    /**
+     * Creates the index of the columns of the result set
+     *
+     * @param resultSet the result set
+     *
+     * @return the index
+     *
+     * @throws SQLException if the meta data of the result set could not be read
+     */
+    public static ColumnIndex of(ResultSet resultSet) throws SQLException {
+        return of(resultSet.getMetaData());
+    }
+
+    /**
+     * Returns if the result set described by the meta data has exactly the columns of this index, in the same order
+     *
+     * @param metaData the meta data of the result set
+     *
+     * @return if the labels match
+     *
+     * @throws SQLException if the meta data could not be read
+     */
+    public boolean matches(ResultSetMetaData metaData) throws SQLException {
+        if (metaData.getColumnCount() != this.labels.size()) return false;
+        for (int i = 1; i <= this.labels.size(); i++) {
+            if (!this.labels.get(i - 1).equals(metaData.getColumnLabel(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the column
+     *
+     * @param label the label of the column
+     *
+     * @return the index, starting at 1
+     *
+     * @throws SQLException if there is no column with that label
+     */
+    public int indexOf(String label) throws SQLException {
+        int index = this.names.indexOf(label);
+        if (index > 0 && index <= this.labels.size() && this.labels.get(index - 1).equalsIgnoreCase(label)) return index;
+
+        for (int i = 0; i < this.labels.size(); i++) {
+            if (this.labels.get(i).equalsIgnoreCase(label)) return i + 1;
+        }
+        throw new SQLException(String.format("Unknown column %s, the result contains %s", label, this.labels));
+    }
+
+    /**
+     * Returns the label of the column
+     *
+     * @param index the index of the column, starting at 1
+     *
+     * @return the label
+     *
+     * @throws IndexOutOfBoundsException if there is no column at the index
+     */
+    public String label(int index) {
+        return this.labels.get(index - 1);
+    }
+
+    /**
+     * Returns the amount of columns
+     *
+     * @return the amount of columns
+     */
+    public int size() {
+        return this.labels.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ColumnIndex%s", this.labels);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Expands the list variables of a promise, declared as e.g. {@code @ids[]}, into one {@code ?} per element. The amount
+ * of elements is rounded up to the next power of two, the bucket, and the remaining {@code ?} are padded with the last
+ * element, so a list variable produces only a few distinct statements. The promise of every combination of buckets,
+ * the shape, is created once and cached.
+ * <p>
+ * A shape keeps the declared indices of all other variables. The elements of the lists follow behind the highest
+ * declared index of the original table, the elements of the first list first. The {@code ?} of the SQL are located by
+ * the positions the parser recorded, so the SQL never has to be tokenized again.
+ * <p>
+ * Lists may not be empty. {@code IN ()} is no valid SQL and binding a single null instead only works for {@code IN}, as
+ * {@code NOT IN (NULL)} would never match any row.
+ */
+final class ListExpansion {
+
+    private final ValidStatementPromise promise;
+    private final int[] lists;
+    private final int[] positions;
+    private final ConcurrentMap<List<Integer>, ValidStatementPromise> shapes = new ConcurrentHashMap<>();
+
+    private ListExpansion(ValidStatementPromise promise, int[] lists, int[] positions) {
+        this.promise = promise;
+        this.lists = lists;
+        this.positions = positions;
+    }
+
+    /**
+     * Creates the expansion of the promise
+     *
+     * @param promise the promise
+     * @param variables the variables declared by the promise
+     * @param positions the position of every {@code ?} in the SQL of the promise or null if they are unknown
+     *
+     * @return the expansion or null if none of the variables is a list
+     *
+     * @throws IllegalArgumentException if a variable is a list but the positions are unknown
+     */
+    static ListExpansion of(ValidStatementPromise promise, List<String> variables, int[] positions) {
+        int[] lists = new int[variables.size()];
+        int count = 0;
+        for (int i = 0; i < variables.size(); i++) {
+            if (isList(variables.get(i))) lists[count++] = i + 1;
+        }
+        if (count == 0) return null;
+        if (positions == null) {
+            throw new IllegalArgumentException("List variables need the positions of the parameters in the SQL");
+        }
+        return new ListExpansion(promise, Arrays.copyOf(lists, count), positions);
+    }
+
+    /**
+     * Returns if the declared variable is a list variable
+     *
+     * @param variable the variable as declared in the comment
+     *
+     * @return if the variable ends with {@code []}
+     */
+    static boolean isList(String variable) {
+        return variable.endsWith("[]");
+    }
+
+    /**
+     * Returns the bucket of a list
+     *
+     * @param size the amount of elements of the list
+     *
+     * @return the next power of two, at least 1
+     */
+    static int bucket(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Returns the amount of list variables
+     *
+     * @return the amount of lists
+     */
+    int lists() {
+        return this.lists.length;
+    }
+
+    /**
+     * Returns the shape of the given list sizes
+     *
+     * @param sizes the amount of elements of every list variable, in the order they were declared in
+     *
+     * @return the promise of the shape
+     *
+     * @throws IllegalArgumentException if the amount of sizes does not match the amount of list variables or a list is
+     *                                  empty
+     */
+    ValidStatementPromise expand(int[] sizes) {
+        if (sizes.length != this.lists.length) {
+            throw new IllegalArgumentException(String.format("Expected %d list sizes, got %d", this.lists.length, sizes.length));
+        }
+
+        Integer[] buckets = new Integer[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            if (sizes[i] < 1) throw new IllegalArgumentException(String.format("Invalid list size %d, lists may not be empty", sizes[i]));
+            buckets[i] = Integer.numberOfTrailingZeros(bucket(sizes[i])); // Keeps the boxed key within the integer cache
+        }
+        List<Integer> key = List.of(buckets);
+        ValidStatementPromise shape = this.shapes.get(key);
+        return shape != null ? shape : this.shapes.computeIfAbsent(key, this::shape);
+    }
+
+    /**
+     * Sets the elements of the lists on a statement prepared from their shape
+     *
+     * @param statement the statement prepared from the shape of the lists
+     * @param values the elements of every list variable, in the order they were declared in
+     *
+     * @throws SQLException if the statement rejected one of the elements
+     * @throws IllegalArgumentException if the amount of lists does not match the amount of list variables or a list is
+     *                                  empty
+     */
+    void bind(PreparedStatement statement, Collection<?>[] values) throws SQLException {
+        if (values.length != this.lists.length) {
+            throw new IllegalArgumentException(String.format("Expected %d lists, got %d", this.lists.length, values.length));
+        }
+
+        int index = this.promise.getParameterTable().declaredCount();
+        for (Collection<?> list : values) {
+            if (list.isEmpty()) throw new IllegalArgumentException("Lists may not be empty");
+            int bucket = bucket(list.size());
+            Object last = null;
+            Iterator<?> iterator = list.iterator();
+            for (int i = 0; i < bucket; i++) {
+                if (iterator.hasNext()) last = iterator.next();
+                statement.setObject(++index, last);
+            }
+        }
+    }
+
+    /**
+     * Creates the promise of a shape
+     *
+     * @param key the exponent of the bucket of every list
+     *
+     * @return the promise
+     */
+    private ValidStatementPromise shape(List<Integer> key) {
+        ParameterTable table = this.promise.getParameterTable();
+        String sql = this.promise.getRawContent();
+        int[] positions = this.positions;
+
+        // The declared index of every ? of the original SQL
+        int[] declared = new int[table.parameterCount()];
+        for (int d = 1; d <= table.declaredCount(); d++) {
+            for (int i = table.start(d), end = table.end(d); i < end; i++) declared[table.real(i) - 1] = d;
+        }
+
+        // The declared index of the first element of every list
+        int[] firstElement = new int[this.lists.length];
+        int parameters = declared.length;
+        int next = table.declaredCount() + 1;
+        for (int i = 0; i < this.lists.length; i++) {
+            firstElement[i] = next;
+            int bucket = 1 << key.get(i);
+            next += bucket;
+            parameters += (table.end(this.lists[i]) - table.start(this.lists[i])) * (bucket - 1);
+        }
+
+        StringBuilder builder = new StringBuilder(sql.length() + parameters * 3);
+        int[] declaredIndices = new int[parameters];
+        int[] shapePositions = new int[parameters];
+        int real = 0;
+        int written = 0;
+        for (int i = 0; i < positions.length; i++) {
+            builder.append(sql, written, positions[i]);
+            written = positions[i] + 1;
+
+            int list = Arrays.binarySearch(this.lists, declared[i]);
+            if (list < 0) {
+                shapePositions[real] = builder.length();
+                builder.append('?');
+                declaredIndices[real++] = declared[i];
+                continue;
+            }
+
+            int bucket = 1 << key.get(list);
+            for (int element = 0; element < bucket; element++) {
+                if (element > 0) builder.append(", ");
+                shapePositions[real] = builder.length();
+                builder.append('?');
+                declaredIndices[real++] = firstElement[list] + element;
+            }
+        }
+        builder.append(sql, written, sql.length());
+        return new ValidStatementPromise(
+                builder.toString(), ParameterTable.of(declaredIndices, real), this.promise.getVariables(), shapePositions
+        );
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.promise.parser.SqlLexer;
+import me.lynxplay.idonis.core.dialect.promise.parser.SqlSyntax;
+import me.lynxplay.idonis.core.dialect.promise.parser.SqlTokenType;
+import me.lynxplay.idonis.core.dialect.promise.parser.SqlTokens;
+import me.lynxplay.idonis.dialect.SQLDialect;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The multi row variants of a single row insert script. A script like {@code INSERT INTO t (a, b) VALUES (@a, @b)} is
+ * rewritten into {@code INSERT INTO t (a, b) VALUES (?, ?), (?, ?), ...} for a fixed set of row counts, the buckets.
+ * Every bucket is a {@link ValidStatementPromise} with its own {@link ParameterTable}, in which the declared index
+ * {@code d} of row {@code r} is found at {@code d + r * declaredCount}.
+ * <p>
+ * Rows are spread over the buckets by {@link #execute(Connection, Iterable, StatementBinder)}, which binds every row
+ * with the binder of the single row script and executes as few statements as possible. The largest bucket never
+ * exceeds the {@link SQLDialect#maxParameters()} of the dialect.
+ */
+public final class MultiRowInsert {
+
+    /**
+     * The largest amount of rows of a single bucket, which keeps the generated SQL reasonably small
+     */
+    public static final int MAX_ROWS = 512;
+
+    /**
+     * The factor between the sizes of the smaller buckets
+     */
+    private static final int BUCKET_FACTOR = 8;
+
+    // The states of the scan for the tuple
+    private static final int PREFIX = 0;
+    private static final int VALUES = 1;
+    private static final int TUPLE = 2;
+    private static final int TUPLE_END = 3;
+    private static final int SUFFIX = 4;
+
+    private final ValidStatementPromise promise;
+    private final int[] bucketSizes;
+    private final ValidStatementPromise[] buckets;
+
+    private MultiRowInsert(ValidStatementPromise promise, int[] bucketSizes, ValidStatementPromise[] buckets) {
+        this.promise = promise;
+        this.bucketSizes = bucketSizes;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Creates the multi row variants of the promise if its script is a single row insert. A script qualifies if it
+     * starts with {@code INSERT} or {@code REPLACE}, contains exactly one {@code VALUES} tuple and uses every {@code ?}
+     * inside that tuple, e.g. an {@code ON CONFLICT} clause without variables is fine, one setting a variable is not.
+     *
+     * @param promise the promise of the single row script
+     * @param dialect the dialect the script is written in, defining the syntax and the parameter limit
+     *
+     * @return the multi row variants or an empty optional if the script is no single row insert
+     */
+    public static Optional<MultiRowInsert> of(ValidStatementPromise promise, SQLDialect dialect) {
+        ParameterTable table = promise.getParameterTable();
+        int parameters = table.parameterCount();
+        if (parameters == 0) return Optional.empty();
+
+        SqlTokens tokens = new SqlLexer(SqlSyntax.of(dialect)).tokenize(promise.getRawContent());
+        int[] tuple = findTuple(tokens, parameters);
+        if (tuple == null) return Optional.empty();
+
+        int maxRows = Math.max(1, Math.min(MAX_ROWS, dialect.maxParameters() / parameters));
+        List<Integer> sizes = new ArrayList<>();
+        for (int size = 1; size < maxRows; size *= BUCKET_FACTOR) sizes.add(size);
+        sizes.add(maxRows);
+
+        String source = tokens.source();
+        String prefix = source.substring(0, tuple[0]);
+        String row = source.substring(tuple[0], tuple[1]);
+        String suffix = source.substring(tuple[1]);
+
+        // The declared index of every ? of the single row
+        int[] declaredIndices = new int[parameters];
+        for (int declared = 1; declared <= table.declaredCount(); declared++) {
+            for (int i = table.start(declared), end = table.end(declared); i < end; i++) declaredIndices[table.real(i) - 1] = declared;
+        }
+
+        int[] bucketSizes = new int[sizes.size()];
+        ValidStatementPromise[] buckets = new ValidStatementPromise[sizes.size()];
+        for (int i = 0; i < bucketSizes.length; i++) {
+            bucketSizes[i] = sizes.get(i);
+            buckets[i] = bucket(prefix, row, suffix, declaredIndices, table.declaredCount(), bucketSizes[i]);
+        }
+        return Optional.of(new MultiRowInsert(promise, bucketSizes, buckets));
+    }
+
+    /**
+     * Finds the {@code VALUES} tuple of a single row insert
+     *
+     * @param tokens the tokens of the script
+     * @param parameters the amount of {@code ?} the script has to contain
+     *
+     * @return the start index of the opening and the index behind the closing parenthesis of the tuple or null if the
+     *         script is no single row insert
+     */
+    private static int[] findTuple(SqlTokens tokens, int parameters) {
+        String source = tokens.source();
+        int first = tokens.indexOf(SqlTokenType.CODE);
+        if (first < 0) return null;
+        String statement = leadingWord(source, tokens.start(first));
+        if (!statement.equalsIgnoreCase("INSERT") && !statement.equalsIgnoreCase("REPLACE")) return null;
+
+        int state = PREFIX;
+        int depth = 0;
+        int placeholders = 0;
+        int tupleStart = -1;
+        int tupleEnd = -1;
+        for (int token = first; token < tokens.size(); token++) {
+            SqlTokenType type = tokens.type(token);
+            if (type != SqlTokenType.CODE) {
+                // Only whitespace and comments may separate VALUES and its tuple
+                if (state == VALUES && (type == SqlTokenType.STRING || type == SqlTokenType.QUOTED_IDENTIFIER)) return null;
+                continue;
+            }
+
+            for (int i = tokens.start(token), end = tokens.end(token); i < end; i++) {
+                char c = source.charAt(i);
+                if (Character.isWhitespace(c)) continue;
+
+                switch (state) {
+                    case PREFIX:
+                        if (c == '?') return null;
+                        if (c == '(') depth++;
+                        else if (c == ')') depth--;
+                        else if (depth == 0 && isKeyword(source, i, "VALUES")) {
+                            state = VALUES;
+                            i += "VALUES".length() - 1;
+                        }
+                        break;
+                    case VALUES:
+                        if (c != '(') return null;
+                        tupleStart = i;
+                        depth = 1;
+                        state = TUPLE;
+                        break;
+                    case TUPLE:
+                        if (c == '?') placeholders++;
+                        else if (c == '(') depth++;
+                        else if (c == ')' && --depth == 0) {
+                            tupleEnd = i + 1;
+                            state = TUPLE_END;
+                        }
+                        break;
+                    case TUPLE_END:
+                        if (c == ',') return null; // The script already inserts several rows
+                        state = SUFFIX;
+                        break;
+                }
+                // The suffix, including the character that ended the tuple, may not bind any further parameters
+                if (state == SUFFIX && c == '?') return null;
+            }
+        }
+
+        if (tupleEnd < 0 || placeholders != parameters) return null;
+        return new int[]{tupleStart, tupleEnd};
+    }
+
+    /**
+     * Returns the word starting at the index
+     *
+     * @param source the script
+     * @param start the start index of the word
+     *
+     * @return the word, which is empty if the index does not point at a letter
+     */
+    private static String leadingWord(String source, int start) {
+        int end = start;
+        while (end < source.length() && Character.isLetter(source.charAt(end))) end++;
+        return source.substring(start, end);
+    }
+
+    /**
+     * Checks if the keyword, ignoring its case, starts at the index and is neither preceded nor followed by a character
+     * of an identifier
+     *
+     * @param source the script
+     * @param index the index to check
+     * @param keyword the keyword
+     *
+     * @return if the keyword starts at the index
+     */
+    private static boolean isKeyword(String source, int index, String keyword) {
+        int end = index + keyword.length();
+        if (!source.regionMatches(true, index, keyword, 0, keyword.length())) return false;
+        if (index > 0 && Character.isJavaIdentifierPart(source.charAt(index - 1))) return false;
+        return end >= source.length() || !Character.isJavaIdentifierPart(source.charAt(end));
+    }
+
+    /**
+     * Creates the promise of a single bucket
+     *
+     * @param prefix the script before the tuple
+     * @param row the tuple of a single row
+     * @param suffix the script behind the tuple
+     * @param declaredIndices the declared index of every ? of the tuple
+     * @param declaredCount the amount of declared indices of a single row
+     * @param rows the amount of rows of the bucket
+     *
+     * @return the promise
+     */
+    private static ValidStatementPromise bucket(String prefix, String row, String suffix, int[] declaredIndices,
+                                                int declaredCount, int rows) {
+        StringBuilder builder = new StringBuilder(prefix.length() + (row.length() + 2) * rows + suffix.length()).append(prefix);
+        int[] indices = new int[declaredIndices.length * rows];
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) builder.append(", ");
+            builder.append(row);
+            for (int i = 0; i < declaredIndices.length; i++) indices[r * declaredIndices.length + i] = declaredIndices[i] + r * declaredCount;
+        }
+        return new ValidStatementPromise(builder.append(suffix).toString(), ParameterTable.of(indices, indices.length));
+    }
+
+    /**
+     * Returns the promise of the single row script
+     *
+     * @return the promise
+     */
+    public ValidStatementPromise getPromise() {
+        return this.promise;
+    }
+
+    /**
+     * Returns the amount of rows of every bucket, in ascending order. The smallest bucket always holds a single row.
+     *
+     * @return a copy of the bucket sizes
+     */
+    public int[] bucketSizes() {
+        return this.bucketSizes.clone();
+    }
+
+    /**
+     * Returns the promise of the bucket holding exactly the given amount of rows
+     *
+     * @param rows the amount of rows
+     *
+     * @return the promise
+     *
+     * @throws IllegalArgumentException if there is no bucket of that size
+     */
+    public ValidStatementPromise bucket(int rows) {
+        for (int i = 0; i < this.bucketSizes.length; i++) {
+            if (this.bucketSizes[i] == rows) return this.buckets[i];
+        }
+        throw new IllegalArgumentException(String.format("No bucket of %d rows", rows));
+    }
+
+    /**
+     * Inserts all rows with as few statements as possible. Rows are collected until the largest bucket is full, the
+     * remaining rows are spread over the smaller buckets. Every bucket is prepared at most once per call.
+     *
+     * @param connection the connection to prepare the statements on
+     * @param rows the rows to insert, consumed lazily
+     * @param binder the binder setting the values of a row, bound by the declared indices of the single row script
+     * @param <T> the type of the rows
+     *
+     * @return the aggregated result, counting every executed statement as a batch
+     *
+     * @throws SQLException if a row could not be bound or a statement failed
+     * @throws IllegalArgumentException if the binder sets an index the single row script does not declare
+     */
+    public <T> BatchResult execute(Connection connection, Iterable<? extends T> rows, StatementBinder<? super T> binder) throws SQLException {
+        int largest = this.bucketSizes.length - 1;
+        List<T> pending = new ArrayList<>(this.bucketSizes[largest]);
+        PreparedStatement[] statements = new PreparedStatement[this.buckets.length];
+        OffsetStatement[] views = new OffsetStatement[this.buckets.length];
+
+        long executed = 0;
+        int batches = 0;
+        long updateCount = 0;
+        int declaredCount = this.promise.getParameterTable().declaredCount();
+        Throwable failure = null;
+        try {
+            Iterator<? extends T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                pending.add(iterator.next());
+                if (pending.size() < this.bucketSizes[largest] && iterator.hasNext()) continue;
+
+                int from = 0;
+                int bucket = largest;
+                while (from < pending.size()) {
+                    while (this.bucketSizes[bucket] > pending.size() - from) bucket--;
+                    if (statements[bucket] == null) {
+                        statements[bucket] = this.buckets[bucket].prepare(connection);
+                        views[bucket] = new OffsetStatement(statements[bucket], this.bucketSizes[bucket], declaredCount);
+                    }
+
+                    OffsetStatement view = views[bucket];
+                    for (int r = 0; r < this.bucketSizes[bucket]; r++) {
+                        view.row(r);
+                        binder.bind(view, pending.get(from + r));
+                    }
+                    updateCount += Math.max(0, statements[bucket].executeUpdate());
+                    from += this.bucketSizes[bucket];
+                    batches++;
+                }
+                executed += pending.size();
+                pending.clear();
+            }
+        } catch (Throwable t) {
+            failure = t;
+            throw t;
+        } finally {
+            close(statements, failure);
+        }
+        return new BatchResult(executed, batches, updateCount, 0);
+    }
+
+    /**
+     * Closes every prepared statement, even if closing one of them fails
+     *
+     * @param statements the statements of the buckets, null if the bucket was not prepared
+     * @param failure the failure that ended the insert, which collects the failures to close as suppressed exceptions,
+     *                or null if the insert succeeded
+     *
+     * @throws SQLException the first failure to close a statement if the insert succeeded, the following failures are
+     *                      added as suppressed exceptions
+     */
+    private static void close(PreparedStatement[] statements, Throwable failure) throws SQLException {
+        SQLException closeFailure = null;
+        for (PreparedStatement statement : statements) {
+            if (statement == null) continue;
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                if (failure != null) failure.addSuppressed(e);
+                else if (closeFailure == null) closeFailure = e;
+                else closeFailure.addSuppressed(e);
+            }
+        }
+        if (closeFailure != null) throw closeFailure;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("MultiRowInsert{buckets=");
+        for (int i = 0; i < this.bucketSizes.length; i++) builder.append(i == 0 ? "" : ",").append(this.bucketSizes[i]);
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * A {@link PreparedStatement} that can be bound by the names of the variables of its script in addition to their
+ * declared indices, e.g. {@code setString("first_name", name)}. The names are resolved through the {@link
+ * VariableNames} of the promise, which are computed once per promise and shared by all of its statements.
+ *
+ * @see ValidStatementPromise#prepareNamed(java.sql.Connection)
+ */
+public class NamedStatement extends DelegatingPreparedStatement {
+
+    private final VariableNames variableNames;
+
+    /**
+     * Creates a new named statement
+     *
+     * @param preparedStatement the statement prepared from the promise, bound by declared indices
+     * @param variableNames the variable names of the promise
+     */
+    public NamedStatement(PreparedStatement preparedStatement, VariableNames variableNames) {
+        super(preparedStatement);
+        this.variableNames = variableNames;
+    }
+
+    /**
+     * Returns the declared index of the variable
+     *
+     * @param variable the name of the variable
+     *
+     * @return the declared index
+     *
+     * @throws SQLException if there is no such variable
+     */
+    public int indexOf(String variable) throws SQLException {
+        int index = this.variableNames.indexOf(variable);
+        if (index < 0) throw new SQLException(String.format("Unknown variable %s, declared are %s", variable, this.variableNames));
+        return index;
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setNull(int, int)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param sqlType the SQL type
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setNull(String variable, int sqlType) throws SQLException {
+        setNull(this.indexOf(variable), sqlType);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setBoolean(int, boolean)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setBoolean(String variable, boolean x) throws SQLException {
+        setBoolean(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setByte(int, byte)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setByte(String variable, byte x) throws SQLException {
+        setByte(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setShort(int, short)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setShort(String variable, short x) throws SQLException {
+        setShort(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setInt(int, int)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setInt(String variable, int x) throws SQLException {
+        setInt(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setLong(int, long)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setLong(String variable, long x) throws SQLException {
+        setLong(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setFloat(int, float)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setFloat(String variable, float x) throws SQLException {
+        setFloat(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setDouble(int, double)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setDouble(String variable, double x) throws SQLException {
+        setDouble(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setBigDecimal(int, BigDecimal)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setBigDecimal(String variable, BigDecimal x) throws SQLException {
+        setBigDecimal(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setString(int, String)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setString(String variable, String x) throws SQLException {
+        setString(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setBytes(int, byte[])} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setBytes(String variable, byte[] x) throws SQLException {
+        setBytes(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setDate(int, Date)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setDate(String variable, Date x) throws SQLException {
+        setDate(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setTime(int, Time)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setTime(String variable, Time x) throws SQLException {
+        setTime(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setTimestamp(int, Timestamp)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setTimestamp(String variable, Timestamp x) throws SQLException {
+        setTimestamp(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setObject(int, Object)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setObject(String variable, Object x) throws SQLException {
+        setObject(this.indexOf(variable), x);
+    }
+
+    /**
+     * Calls {@link PreparedStatement#setObject(int, Object, int)} with the declared index of the variable
+     *
+     * @param variable the name of the variable
+     * @param x the value
+     * @param targetSqlType the SQL type
+     *
+     * @throws SQLException if there is no such variable or the statement rejected the value
+     */
+    public void setObject(String variable, Object x, int targetSqlType) throws SQLException {
+        setObject(this.indexOf(variable), x, targetSqlType);
+    }
+
+    /**
+     * Sets every declared variable that is contained in the map using {@link PreparedStatement#setObject(int, Object)}.
+     * Variables missing in the map are left untouched, entries of the map that do not name a variable are ignored.
+     *
+     * @param values the values by the names of the variables
+     *
+     * @throws SQLException if the statement rejected one of the values
+     */
+    public void setAll(Map<String, ?> values) throws SQLException {
+        for (int i = 1; i <= this.variableNames.size(); i++) {
+            String name = this.variableNames.name(i);
+            Object value = values.get(name);
+            if (value != null || values.containsKey(name)) setObject(i, value);
+        }
+    }
+
+    /**
+     * Returns the variable names this statement resolves names with
+     *
+     * @return the variable names
+     */
+    public VariableNames getVariableNames() {
+        return this.variableNames;
+    }
+
+    @Override
+    public boolean isTransparent() {
+        return true;
+    }
+}
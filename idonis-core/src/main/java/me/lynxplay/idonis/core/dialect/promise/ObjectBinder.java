@@ -0,0 +1,315 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds the properties of records and beans to the variables of a {@link ValidStatementPromise} by name. A variable
+ * declared as {@code @first_name} is bound to the first property found of
+ * <ul>
+ *     <li>a public method {@code first_name()} or {@code firstName()}, which covers the accessors of records</li>
+ *     <li>a public method {@code getFirstName()}, or {@code isFirstName()} returning a boolean</li>
+ *     <li>a public field {@code first_name} or {@code firstName}</li>
+ * </ul>
+ * The accessors are resolved once when the binder is created and composed into a single method handle with the setter
+ * matching the type of each property, e.g. {@link PreparedStatement#setInt(int, int)} for {@code int} properties. Binding
+ * an instance therefore neither reflects nor boxes primitive properties. Properties of types without a dedicated setter
+ * are bound using {@link PreparedStatement#setObject(int, Object)}.
+ * <p>
+ * Binders are obtained from {@link ValidStatementPromise#binder(Class)}, which caches them per promise and type. Plain
+ * {@code ?} of the script are not bound.
+ *
+ * @param <T> the type of the bound instances
+ */
+public final class ObjectBinder<T> implements StatementBinder<T> {
+
+    private static final MethodType BINDING = MethodType.methodType(void.class, PreparedStatement.class, Object.class);
+    private static final Map<Class<?>, String> SETTERS = Map.ofEntries(
+            Map.entry(boolean.class, "setBoolean"),
+            Map.entry(byte.class, "setByte"),
+            Map.entry(short.class, "setShort"),
+            Map.entry(int.class, "setInt"),
+            Map.entry(long.class, "setLong"),
+            Map.entry(float.class, "setFloat"),
+            Map.entry(double.class, "setDouble"),
+            Map.entry(String.class, "setString"),
+            Map.entry(BigDecimal.class, "setBigDecimal"),
+            Map.entry(byte[].class, "setBytes"),
+            Map.entry(Date.class, "setDate"),
+            Map.entry(Time.class, "setTime"),
+            Map.entry(Timestamp.class, "setTimestamp")
+    );
+
+    private final Class<T> type;
+    private final ParameterTable parameterTable;
+    private final MethodHandle declaredBinding;
+    private final MethodHandle realBinding;
+
+    /**
+     * Creates the binder of the type for the promise
+     *
+     * @param promise the promise whose variables are bound
+     * @param type the type of the bound instances
+     *
+     * @throws IllegalArgumentException if one of the variables has no matching property in the type
+     */
+    ObjectBinder(ValidStatementPromise promise, Class<T> type) {
+        this.type = type;
+        this.parameterTable = promise.getParameterTable();
+
+        List<String> variables = promise.getVariables();
+        MethodHandle[] accessors = new MethodHandle[variables.size()];
+        for (int i = 0; i < accessors.length; i++) accessors[i] = accessor(type, variables.get(i));
+
+        int[] identity = new int[accessors.length];
+        for (int i = 0; i < identity.length; i++) identity[i] = i + 1;
+        this.declaredBinding = compose(accessors, ParameterTable.of(identity, identity.length));
+        this.realBinding = compose(accessors, this.parameterTable);
+    }
+
+    /**
+     * Sets all properties of the instance on the statement. If the statement was prepared from the promise of this
+     * binder, also if it is wrapped in {@link DelegatingPreparedStatement#isTransparent() transparent} statements like
+     * those of a session, the properties are set on the real indices of the driver statement directly. Otherwise they
+     * are set on the declared indices of the given statement.
+     *
+     * @param statement the statement to bind the instance to
+     * @param value the instance
+     *
+     * @throws SQLException if the statement rejected one of the properties
+     * @throws NullPointerException if the instance is null
+     */
+    @Override
+    public void bind(PreparedStatement statement, T value) throws SQLException {
+        while (statement instanceof DelegatingPreparedStatement && ((DelegatingPreparedStatement) statement).isTransparent()) {
+            statement = ((DelegatingPreparedStatement) statement).getWrapped();
+        }
+        PreparedStatement target = statement;
+        MethodHandle binding = this.declaredBinding;
+        if (this.parameterTable.isIdentity()) {
+            binding = this.realBinding;
+        } else if (statement instanceof ValidStatementWrapper && ((ValidStatementWrapper) statement).getParameterTable() == this.parameterTable) {
+            target = ((ValidStatementWrapper) statement).getWrapped();
+            binding = this.realBinding;
+        }
+
+        try {
+            binding.invokeExact(target, (Object) this.type.cast(value));
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    /**
+     * Sets all properties of the instance on the statement and adds them to its batch
+     *
+     * @param statement the statement to bind the instance to
+     * @param value the instance
+     *
+     * @throws SQLException if the statement rejected one of the properties or the batch
+     * @see #bind(PreparedStatement, Object)
+     */
+    public void addBatch(PreparedStatement statement, T value) throws SQLException {
+        this.bind(statement, value);
+        statement.addBatch();
+    }
+
+    /**
+     * Returns the type of the instances this binder binds
+     *
+     * @return the type
+     */
+    public Class<T> type() {
+        return this.type;
+    }
+
+    /**
+     * Rethrows whatever a binding threw, declared as a {@link SQLException} as that is the only checked exception the
+     * setters throw
+     *
+     * @param throwable the thrown throwable
+     *
+     * @return the exception to throw
+     */
+    private static SQLException rethrow(Throwable throwable) {
+        if (throwable instanceof SQLException) return (SQLException) throwable;
+        if (throwable instanceof RuntimeException) throw (RuntimeException) throwable;
+        if (throwable instanceof Error) throw (Error) throwable;
+        return new SQLException(throwable);
+    }
+
+    /**
+     * Composes the accessors into a single handle, setting the property of the accessor at index {@code i} on all real
+     * indices of the declared index {@code i + 1}
+     *
+     * @param accessors the accessors, taking the instance
+     * @param table the table of the indices to set
+     *
+     * @return the handle taking the statement and the instance
+     */
+    private static MethodHandle compose(MethodHandle[] accessors, ParameterTable table) {
+        MethodHandle binding = MethodHandles.empty(BINDING);
+        for (int declaredIndex = 1; declaredIndex <= accessors.length; declaredIndex++) {
+            MethodHandle accessor = accessors[declaredIndex - 1];
+            MethodHandle setter = setter(accessor.type().returnType());
+            for (int i = table.start(declaredIndex); i < table.end(declaredIndex); i++) {
+                MethodHandle call = MethodHandles.filterArguments(MethodHandles.insertArguments(setter, 1, table.real(i)), 1, accessor);
+                binding = MethodHandles.foldArguments(call.asType(BINDING), binding);
+            }
+        }
+        return binding;
+    }
+
+    /**
+     * Finds the setter of {@link PreparedStatement} for the property type
+     *
+     * @param propertyType the type of the property
+     *
+     * @return the setter, taking the statement, the index and the property
+     */
+    private static MethodHandle setter(Class<?> propertyType) {
+        String name = SETTERS.getOrDefault(propertyType, "setObject");
+        Class<?> parameterType = SETTERS.containsKey(propertyType) ? propertyType : Object.class;
+        try {
+            return MethodHandles.publicLookup().findVirtual(PreparedStatement.class, name, MethodType.methodType(void.class, int.class, parameterType));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(String.format("Could not find %s of PreparedStatement", name), e);
+        }
+    }
+
+    /**
+     * Resolves the accessor of the property bound to the variable
+     *
+     * @param type the type declaring the property
+     * @param variable the variable as declared in the script
+     *
+     * @return the accessor taking an {@link Object} and returning the property
+     *
+     * @throws IllegalArgumentException if the type has no property for the variable
+     */
+    private static MethodHandle accessor(Class<?> type, String variable) {
+        String name = VariableNames.name(variable);
+        String camelCase = camelCase(name);
+        String capitalized = camelCase.isEmpty() ? camelCase : Character.toUpperCase(camelCase.charAt(0)) + camelCase.substring(1);
+
+        Method method = method(type, name);
+        if (method == null) method = method(type, camelCase);
+        if (method == null) method = method(type, "get" + capitalized);
+        if (method == null) {
+            method = method(type, "is" + capitalized);
+            if (method != null && method.getReturnType() != boolean.class) method = null;
+        }
+
+        try {
+            if (method != null) {
+                method.trySetAccessible(); // Public methods of non public types, e.g. private nested records
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                return handle.asType(handle.type().changeParameterType(0, Object.class));
+            }
+
+            Field field = field(type, name);
+            if (field == null) field = field(type, camelCase);
+            if (field != null) {
+                field.trySetAccessible();
+                MethodHandle handle = MethodHandles.lookup().unreflectGetter(field);
+                return handle.asType(handle.type().changeParameterType(0, Object.class));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(String.format("Cannot access the property of %s in %s", variable, type.getName()), e);
+        }
+        throw new IllegalArgumentException(String.format("%s has no property for the variable %s", type.getName(), variable));
+    }
+
+    /**
+     * Finds a public instance method without parameters returning a value
+     *
+     * @param type the type to search
+     * @param name the name of the method
+     *
+     * @return the method or null
+     */
+    private static Method method(Class<?> type, String name) {
+        try {
+            Method method = type.getMethod(name);
+            return method.getReturnType() == void.class || Modifier.isStatic(method.getModifiers()) ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds a public instance field
+     *
+     * @param type the type to search
+     * @param name the name of the field
+     *
+     * @return the field or null
+     */
+    private static Field field(Class<?> type, String name) {
+        try {
+            Field field = type.getField(name);
+            return Modifier.isStatic(field.getModifiers()) ? null : field;
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a snake case name into camel case, e.g. {@code first_name} into {@code firstName}
+     *
+     * @param name the name
+     *
+     * @return the camel case name
+     */
+    private static String camelCase(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        boolean upper = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '_' && builder.length() > 0) {
+                upper = true;
+            } else {
+                builder.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return builder.toString();
+    }
+}
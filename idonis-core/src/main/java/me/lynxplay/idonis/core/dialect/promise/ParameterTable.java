@@ -0,0 +1,237 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The immutable table mapping the indices of the declared variables, which users set values for, to the indices of the
+ * {@code ?} in the prepared SQL. Both indices start at 1.
+ * <p>
+ * The table is stored as two flat arrays. The real indices of the declared index {@code i} are the elements of the
+ * {@code reals} array between {@code offsets[i]} inclusive and {@code offsets[i + 1]} exclusive, so looking them up
+ * neither boxes, hashes nor walks a list. A single table is shared by all statements prepared from the same promise.
+ */
+public final class ParameterTable {
+
+    private static final ParameterTable EMPTY = new ParameterTable(new int[2], new int[0]);
+
+    private final int[] offsets;
+    private final int[] reals;
+    private final boolean identity;
+
+    private ParameterTable(int[] offsets, int[] reals) {
+        this.offsets = offsets;
+        this.reals = reals;
+        this.identity = isIdentity(offsets, reals);
+    }
+
+    /**
+     * Returns the table without any parameters
+     *
+     * @return the empty table
+     */
+    public static ParameterTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates the table from the declared index of every {@code ?} in the prepared SQL
+     *
+     * @param declaredIndices the declared index of the {@code ?} at real index {@code i + 1}
+     * @param parameters the amount of {@code ?}, i.e. the amount of used elements of the array
+     *
+     * @return the table
+     *
+     * @throws IllegalArgumentException if one of the declared indices is smaller than 1
+     */
+    public static ParameterTable of(int[] declaredIndices, int parameters) {
+        int declared = 0;
+        for (int i = 0; i < parameters; i++) {
+            if (declaredIndices[i] < 1) throw new IllegalArgumentException(String.format("Invalid declared index %d", declaredIndices[i]));
+            declared = Math.max(declared, declaredIndices[i]);
+        }
+
+        // Counting sort by declared index, which keeps the real indices of every declared index ascending
+        int[] offsets = new int[declared + 2];
+        for (int i = 0; i < parameters; i++) offsets[declaredIndices[i] + 1]++;
+        for (int i = 1; i < offsets.length; i++) offsets[i] += offsets[i - 1];
+
+        int[] reals = new int[parameters];
+        int[] next = Arrays.copyOf(offsets, offsets.length);
+        for (int i = 0; i < parameters; i++) reals[next[declaredIndices[i]]++] = i + 1;
+        return new ParameterTable(offsets, reals);
+    }
+
+    /**
+     * Creates the table from a map of declared indices to the real indices they are set on
+     *
+     * @param replacement the map of declared to real indices
+     *
+     * @return the table
+     *
+     * @throws IllegalArgumentException if one of the indices is smaller than 1
+     */
+    public static ParameterTable of(Map<Integer, List<Integer>> replacement) {
+        int declared = 0;
+        int parameters = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : replacement.entrySet()) {
+            if (entry.getKey() < 1) throw new IllegalArgumentException(String.format("Invalid declared index %d", entry.getKey()));
+            declared = Math.max(declared, entry.getKey());
+            parameters += entry.getValue().size();
+        }
+
+        int[] offsets = new int[declared + 2];
+        int[] reals = new int[parameters];
+        int position = 0;
+        for (int i = 1; i <= declared; i++) {
+            offsets[i] = position;
+            for (int real : replacement.getOrDefault(i, List.of())) {
+                if (real < 1) throw new IllegalArgumentException(String.format("Invalid real index %d", real));
+                reals[position++] = real;
+            }
+        }
+        offsets[declared + 1] = position;
+        return new ParameterTable(offsets, reals);
+    }
+
+    /**
+     * Returns the highest declared index of this table
+     *
+     * @return the highest declared index or 0 if the table is empty
+     */
+    public int declaredCount() {
+        return this.offsets.length - 2;
+    }
+
+    /**
+     * Returns the offset of the first real index of the declared index, see {@link #real(int)}. Declared indices unknown
+     * to this table have no real indices, their start equals their {@link #end(int)}.
+     *
+     * @param declaredIndex the declared index
+     *
+     * @return the start offset, inclusive
+     */
+    public int start(int declaredIndex) {
+        return declaredIndex > 0 && declaredIndex < this.offsets.length - 1 ? this.offsets[declaredIndex] : 0;
+    }
+
+    /**
+     * Returns the offset behind the last real index of the declared index, see {@link #real(int)}
+     *
+     * @param declaredIndex the declared index
+     *
+     * @return the end offset, exclusive
+     */
+    public int end(int declaredIndex) {
+        return declaredIndex > 0 && declaredIndex < this.offsets.length - 1 ? this.offsets[declaredIndex + 1] : 0;
+    }
+
+    /**
+     * Returns the real index stored at the given offset
+     *
+     * @param offset the offset between {@link #start(int)} and {@link #end(int)}
+     *
+     * @return the real index
+     */
+    public int real(int offset) {
+        return this.reals[offset];
+    }
+
+    /**
+     * Returns if this table maps every declared index onto the very same real index, i.e. every variable is used exactly
+     * once and in the order it was declared in. Statements of such a table do not need to translate any index. The
+     * empty table is an identity as well.
+     *
+     * @return if the table is an identity mapping
+     */
+    public boolean isIdentity() {
+        return this.identity;
+    }
+
+    /**
+     * Returns the amount of {@code ?} in the prepared SQL
+     *
+     * @return the amount of real indices
+     */
+    public int parameterCount() {
+        return this.reals.length;
+    }
+
+    /**
+     * Converts this table into a map of declared indices to the real indices they are set on. Declared indices without
+     * any real index are left out.
+     *
+     * @return the map
+     */
+    public Map<Integer, List<Integer>> toMap() {
+        Map<Integer, List<Integer>> map = new HashMap<>();
+        for (int i = 1; i <= this.declaredCount(); i++) {
+            if (this.start(i) == this.end(i)) continue;
+            List<Integer> reals = new ArrayList<>(this.end(i) - this.start(i));
+            for (int j = this.start(i); j < this.end(i); j++) reals.add(this.reals[j]);
+            map.put(i, Collections.unmodifiableList(reals));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Checks if the arrays describe an identity mapping
+     *
+     * @param offsets the offsets of the table
+     * @param reals the real indices of the table
+     *
+     * @return if every declared index maps onto itself only
+     */
+    private static boolean isIdentity(int[] offsets, int[] reals) {
+        if (offsets.length - 2 != reals.length) return false;
+        for (int i = 0; i < reals.length; i++) {
+            if (offsets[i + 1] != i || reals[i] != i + 1) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ParameterTable)) return false;
+        ParameterTable other = (ParameterTable) obj;
+        return this.toMap().equals(other.toMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return this.toMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ParameterTable%s", this.toMap());
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs the prepare, bind, execute and read cycle of a single query or update, closing the statement and result set
+ * whatever happens
+ */
+final class QueryExecutor {
+
+    private QueryExecutor() {
+    }
+
+    /**
+     * Executes the query and maps every row
+     *
+     * @param promise the promise the statement was prepared from, which caches the column index
+     * @param statement the prepared statement, which is closed afterwards
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param mapper the mapper of the rows
+     * @param <P> the type of the parameters
+     * @param <T> the type of the rows
+     *
+     * @return the mapped rows
+     *
+     * @throws SQLException if the parameters could not be bound, the query failed or a row could not be mapped
+     */
+    static <P, T> List<T> query(ValidStatementPromise promise, PreparedStatement statement, P parameters,
+                                StatementBinder<? super P> binder, RowMapper<T> mapper) throws SQLException {
+        try (statement) {
+            binder.bind(statement, parameters);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                Row row = new Row(resultSet, promise.columns(resultSet));
+                List<T> rows = new ArrayList<>();
+                while (resultSet.next()) rows.add(mapper.map(row));
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * Executes the query and maps the first row
+     *
+     * @param promise the promise the statement was prepared from, which caches the column index
+     * @param statement the prepared statement, which is closed afterwards
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param mapper the mapper of the row
+     * @param <P> the type of the parameters
+     * @param <T> the type of the row
+     *
+     * @return the mapped row or an empty optional if there is no row or it was mapped to null
+     *
+     * @throws SQLException if the parameters could not be bound, the query failed or the row could not be mapped
+     */
+    static <P, T> Optional<T> queryFirst(ValidStatementPromise promise, PreparedStatement statement, P parameters,
+                                         StatementBinder<? super P> binder, RowMapper<T> mapper) throws SQLException {
+        try (statement) {
+            binder.bind(statement, parameters);
+            statement.setMaxRows(1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) return Optional.empty();
+                return Optional.ofNullable(mapper.map(new Row(resultSet, promise.columns(resultSet))));
+            }
+        }
+    }
+
+    /**
+     * Executes the query and returns an iterator mapping its rows lazily
+     *
+     * @param promise the promise the statement was prepared from, which caches the column index
+     * @param statement the prepared statement, which is owned by the returned iterator
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param mapper the mapper of the rows
+     * @param fetchSize the amount of rows the driver fetches at once, passed to the driver as is
+     * @param <P> the type of the parameters
+     * @param <T> the type of the rows
+     *
+     * @return the iterator
+     *
+     * @throws SQLException if the parameters could not be bound or the query failed, in which case the statement is
+     *         closed
+     */
+    static <P, T> RowIterator<T> iterate(ValidStatementPromise promise, PreparedStatement statement, P parameters,
+                                         StatementBinder<? super P> binder, RowMapper<T> mapper, int fetchSize) throws SQLException {
+        ResultSet resultSet = null;
+        try {
+            binder.bind(statement, parameters);
+            statement.setFetchSize(fetchSize);
+            resultSet = statement.executeQuery();
+            return new RowIterator<>(statement, resultSet, promise.columns(resultSet), mapper);
+        } catch (SQLException | RuntimeException e) {
+            closeSuppressed(resultSet, e);
+            closeSuppressed(statement, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Executes the update
+     *
+     * @param statement the prepared statement, which is closed afterwards
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param <P> the type of the parameters
+     *
+     * @return the update count
+     *
+     * @throws SQLException if the parameters could not be bound or the update failed
+     */
+    static <P> int update(PreparedStatement statement, P parameters, StatementBinder<? super P> binder) throws SQLException {
+        try (statement) {
+            binder.bind(statement, parameters);
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Closes the resource after a failure, adding a failure to close it as suppressed exception to the original one
+     *
+     * @param closeable the resource to close or null if it was never opened
+     * @param failure the original failure
+     */
+    private static void closeSuppressed(AutoCloseable closeable, Throwable failure) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
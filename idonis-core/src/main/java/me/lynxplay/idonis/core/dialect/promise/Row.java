@@ -0,0 +1,476 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * The current row of a query, handed to a {@link RowMapper}. Columns read by their label are resolved through the
+ * {@link ColumnIndex} the promise computed once for its result, so no label is looked up by the driver per row.
+ */
+public final class Row {
+
+    private final ResultSet resultSet;
+    private final ColumnIndex columns;
+
+    /**
+     * Creates a new row view of the result set, which always shows the current row of the result set
+     *
+     * @param resultSet the result set
+     * @param columns the index of the columns of the result set
+     */
+    public Row(ResultSet resultSet, ColumnIndex columns) {
+        this.resultSet = resultSet;
+        this.columns = columns;
+    }
+
+    /**
+     * Reads the column as a {@code String}
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public String getString(int columnIndex) throws SQLException {
+        return this.resultSet.getString(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code String}
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public String getString(String columnLabel) throws SQLException {
+        return this.resultSet.getString(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code boolean}, false if the value is SQL NULL
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public boolean getBoolean(int columnIndex) throws SQLException {
+        return this.resultSet.getBoolean(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code boolean}, false if the value is SQL NULL
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public boolean getBoolean(String columnLabel) throws SQLException {
+        return this.resultSet.getBoolean(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code byte}, 0 if the value is SQL NULL
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public byte getByte(int columnIndex) throws SQLException {
+        return this.resultSet.getByte(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code byte}, 0 if the value is SQL NULL
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public byte getByte(String columnLabel) throws SQLException {
+        return this.resultSet.getByte(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code short}, 0 if the value is SQL NULL
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public short getShort(int columnIndex) throws SQLException {
+        return this.resultSet.getShort(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code short}, 0 if the value is SQL NULL
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public short getShort(String columnLabel) throws SQLException {
+        return this.resultSet.getShort(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as an {@code int}, 0 if the value is SQL NULL
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public int getInt(int columnIndex) throws SQLException {
+        return this.resultSet.getInt(columnIndex);
+    }
+
+    /**
+     * Reads the column as an {@code int}, 0 if the value is SQL NULL
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public int getInt(String columnLabel) throws SQLException {
+        return this.resultSet.getInt(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code long}, 0 if the value is SQL NULL
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public long getLong(int columnIndex) throws SQLException {
+        return this.resultSet.getLong(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code long}, 0 if the value is SQL NULL
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public long getLong(String columnLabel) throws SQLException {
+        return this.resultSet.getLong(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code float}, 0 if the value is SQL NULL
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public float getFloat(int columnIndex) throws SQLException {
+        return this.resultSet.getFloat(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code float}, 0 if the value is SQL NULL
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public float getFloat(String columnLabel) throws SQLException {
+        return this.resultSet.getFloat(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code double}, 0 if the value is SQL NULL
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public double getDouble(int columnIndex) throws SQLException {
+        return this.resultSet.getDouble(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code double}, 0 if the value is SQL NULL
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public double getDouble(String columnLabel) throws SQLException {
+        return this.resultSet.getDouble(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code BigDecimal}
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        return this.resultSet.getBigDecimal(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code BigDecimal}
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
+        return this.resultSet.getBigDecimal(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a byte array
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        return this.resultSet.getBytes(columnIndex);
+    }
+
+    /**
+     * Reads the column as a byte array
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public byte[] getBytes(String columnLabel) throws SQLException {
+        return this.resultSet.getBytes(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code Date}
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public Date getDate(int columnIndex) throws SQLException {
+        return this.resultSet.getDate(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code Date}
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public Date getDate(String columnLabel) throws SQLException {
+        return this.resultSet.getDate(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code Time}
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public Time getTime(int columnIndex) throws SQLException {
+        return this.resultSet.getTime(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code Time}
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public Time getTime(String columnLabel) throws SQLException {
+        return this.resultSet.getTime(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as a {@code Timestamp}
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public Timestamp getTimestamp(int columnIndex) throws SQLException {
+        return this.resultSet.getTimestamp(columnIndex);
+    }
+
+    /**
+     * Reads the column as a {@code Timestamp}
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public Timestamp getTimestamp(String columnLabel) throws SQLException {
+        return this.resultSet.getTimestamp(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as an object of the default type of the column
+     *
+     * @param columnIndex the index of the column, starting at 1
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read
+     */
+    public Object getObject(int columnIndex) throws SQLException {
+        return this.resultSet.getObject(columnIndex);
+    }
+
+    /**
+     * Reads the column as an object of the default type of the column
+     *
+     * @param columnLabel the label of the column
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read
+     */
+    public Object getObject(String columnLabel) throws SQLException {
+        return this.resultSet.getObject(this.columns.indexOf(columnLabel));
+    }
+
+    /**
+     * Reads the column as an instance of the type
+     *
+     * @param columnIndex the index of the column, starting at 1
+     * @param type the type to convert the value to
+     * @param <T> the type
+     *
+     * @return the value
+     *
+     * @throws SQLException if the column could not be read or converted
+     */
+    public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
+        return this.resultSet.getObject(columnIndex, type);
+    }
+
+    /**
+     * Reads the column as an instance of the type
+     *
+     * @param columnLabel the label of the column
+     * @param type the type to convert the value to
+     * @param <T> the type
+     *
+     * @return the value
+     *
+     * @throws SQLException if there is no such column or it could not be read or converted
+     */
+    public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
+        return this.resultSet.getObject(this.columns.indexOf(columnLabel), type);
+    }
+
+    /**
+     * Returns if the column read last was SQL NULL
+     *
+     * @return if the value was null
+     *
+     * @throws SQLException if the result set could not tell
+     */
+    public boolean wasNull() throws SQLException {
+        return this.resultSet.wasNull();
+    }
+
+    /**
+     * Returns the index of the columns of this row
+     *
+     * @return the column index
+     */
+    public ColumnIndex getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Returns the result set this row reads from
+     *
+     * @return the result set
+     */
+    public ResultSet getResultSet() {
+        return this.resultSet;
+    }
+}
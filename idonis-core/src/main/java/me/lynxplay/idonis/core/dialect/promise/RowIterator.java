@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily maps the rows of a query one at a time, so only the rows the driver fetched ahead are held in memory. The
+ * iterator owns its statement and result set and closes both once the last row was read, a row could not be read or
+ * mapped or it is closed, whichever happens first.
+ * <p>
+ * Failures while iterating are thrown as {@link UncheckedSQLException}.
+ *
+ * @param <T> the type of the mapped rows
+ */
+public final class RowIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final Row row;
+    private final RowMapper<T> mapper;
+
+    private boolean advanced;
+    private boolean available;
+    private boolean closed;
+
+    /**
+     * Creates a new iterator over the result set
+     *
+     * @param statement the statement, which is closed together with the iterator
+     * @param resultSet the result of the statement
+     * @param columns the index of the columns of the result
+     * @param mapper the mapper of the rows
+     */
+    RowIterator(PreparedStatement statement, ResultSet resultSet, ColumnIndex columns, RowMapper<T> mapper) {
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.row = new Row(resultSet, columns);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.closed) return false;
+        if (this.advanced) return this.available;
+
+        try {
+            this.available = this.resultSet.next();
+            this.advanced = true;
+        } catch (SQLException e) {
+            throw this.fail("Could not read the next row", e);
+        }
+        if (!this.available) this.closeUnchecked();
+        return this.available;
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        this.advanced = false;
+        try {
+            return this.mapper.map(this.row);
+        } catch (SQLException e) {
+            throw this.fail("Could not map the row", e);
+        } catch (Throwable t) {
+            this.closeAfter(t);
+            throw t;
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the remaining rows. Closing the stream closes this iterator, which should be done
+     * using a try-with-resources block, as a stream that is not consumed until its end keeps the statement open.
+     *
+     * @return the stream
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false).onClose(this::closeUnchecked);
+    }
+
+    /**
+     * Asks the driver to abort the query of this iterator, which may be called from any thread while another thread
+     * reads the rows, see {@link java.sql.Statement#cancel()}
+     *
+     * @throws SQLException if the driver could not cancel the query
+     */
+    void cancel() throws SQLException {
+        if (!this.closed) this.statement.cancel();
+    }
+
+    /**
+     * Returns if the statement of this iterator was closed
+     *
+     * @return if the iterator is closed
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Closes the result set and statement of this iterator. Closing a closed iterator does nothing.
+     *
+     * @throws SQLException if the statement could not be closed
+     */
+    @Override
+    public void close() throws SQLException {
+        if (this.closed) return;
+        this.closed = true;
+        try (this.statement; this.resultSet) {
+            // Closes the result set first, then the statement
+        }
+    }
+
+    /**
+     * Closes this iterator, wrapping the failure into an {@link UncheckedSQLException}
+     */
+    private void closeUnchecked() {
+        try {
+            this.close();
+        } catch (SQLException e) {
+            throw new UncheckedSQLException("Could not close the statement", e);
+        }
+    }
+
+    /**
+     * Closes this iterator after a failure
+     *
+     * @param message the message of the thrown exception
+     * @param cause the failure
+     *
+     * @return the exception to throw
+     */
+    private UncheckedSQLException fail(String message, SQLException cause) {
+        this.closeAfter(cause);
+        return new UncheckedSQLException(message, cause);
+    }
+
+    /**
+     * Closes this iterator after a failure, adding a failure to close it as suppressed exception to the original one
+     *
+     * @param failure the failure
+     */
+    private void closeAfter(Throwable failure) {
+        try {
+            this.close();
+        } catch (SQLException e) {
+            failure.addSuppressed(e);
+        }
+    }
+}
@@ -27,15 +27,21 @@ package me.lynxplay.idonis.core.dialect.promise;
 import java.sql.SQLException;
 
 /**
- * A simple index consumer that consumes an index and may throw a {@link java.sql.SQLException}
+ * Maps the current row of a query to an object
+ *
+ * @param <T> the type of the objects
  */
-public interface StatementIndexConsumer {
+@FunctionalInterface
+public interface RowMapper<T> {
 
     /**
-     * Accepts the given index.
+     * Maps the current row
+     *
+     * @param row the current row, which must not be kept after the call returns
      *
-     * @param index the index
+     * @return the object
+     *
+     * @throws SQLException if one of the columns could not be read
      */
-    void accept(int index) throws SQLException;
-
+    T map(Row row) throws SQLException;
 }
@@ -0,0 +1,296 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the mapped rows of a query to reactive subscribers. Every subscription runs the query on its own statement
+ * of the connection. Rows are read from the result only as the subscriber requests them, preparing and executing the
+ * query, reading rows and closing the statement run on the given executor and never on the thread requesting.
+ * <p>
+ * As a connection must not be used by several threads at once, the subscriptions of a publisher use it one after
+ * another. A subscription takes the connection once its subscriber requests the first row and holds it until the last
+ * row was published, the query failed or the subscription was cancelled. Later subscriptions wait for it without
+ * blocking a thread of the executor.
+ * <p>
+ * Cancelling a subscription calls {@link java.sql.Statement#cancel()} on the cancelling thread, as aborting a running
+ * query has to happen while the executor is blocked by it. The statement itself is closed on the executor as soon as
+ * the current row was delivered. It is closed as well once the last row was published or the query failed.
+ *
+ * @param <T> the type of the mapped rows
+ */
+public final class RowPublisher<T> implements Flow.Publisher<T> {
+
+    private final ValidStatementPromise promise;
+    private final Connection connection;
+    private final Query<T> query;
+    private final Executor executor;
+    private final Queue<RowSubscription<T>> waiting = new ArrayDeque<>(); // Guarded by itself
+    private RowSubscription<T> active; // Guarded by the waiting queue
+
+    /**
+     * Creates a new publisher
+     *
+     * @param promise the promise to prepare the statements from
+     * @param connection the connection to prepare the statements on
+     * @param query the query binding the parameters and mapping the rows
+     * @param executor the executor running the blocking calls of the driver
+     */
+    RowPublisher(ValidStatementPromise promise, Connection connection, Query<T> query, Executor executor) {
+        this.promise = promise;
+        this.connection = connection;
+        this.query = query;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        subscriber.onSubscribe(new RowSubscription<>(this, subscriber));
+    }
+
+    /**
+     * Hands the connection to the subscription if no other subscription uses it, otherwise the subscription is queued
+     * and scheduled again once it received the connection
+     *
+     * @param subscription the subscription that wants to run its query
+     *
+     * @return if the subscription may use the connection
+     */
+    private boolean acquire(RowSubscription<T> subscription) {
+        synchronized (this.waiting) {
+            if (this.active == null) this.active = subscription;
+            if (this.active == subscription) return true;
+            if (!subscription.queued) {
+                subscription.queued = true;
+                this.waiting.add(subscription);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Takes the connection from a finished subscription and hands it to the next waiting one
+     *
+     * @param subscription the finished subscription
+     */
+    private void release(RowSubscription<T> subscription) {
+        RowSubscription<T> next;
+        synchronized (this.waiting) {
+            if (subscription.queued) {
+                subscription.queued = false;
+                this.waiting.remove(subscription);
+            }
+            if (this.active != subscription) return;
+            next = this.active = this.waiting.poll();
+            if (next != null) next.queued = false;
+        }
+        if (next != null) next.schedule();
+    }
+
+    /**
+     * Runs the query of a publisher
+     *
+     * @param <T> the type of the mapped rows
+     */
+    @FunctionalInterface
+    interface Query<T> {
+
+        /**
+         * Prepares the statement, binds its parameters and executes it
+         *
+         * @param promise the promise to prepare the statement from
+         * @param connection the connection to prepare the statement on
+         *
+         * @return the iterator over the mapped rows
+         *
+         * @throws SQLException if the query failed
+         */
+        RowIterator<T> execute(ValidStatementPromise promise, Connection connection) throws SQLException;
+    }
+
+    /**
+     * The subscription of a single subscriber. Requests and cancellation only update the state and schedule the drain
+     * loop, which is the only place reading rows and signalling the subscriber. The work in progress counter makes sure
+     * at most one drain loop runs at a time, so the signals are serialised.
+     *
+     * @param <T> the type of the mapped rows
+     */
+    private static final class RowSubscription<T> implements Flow.Subscription, Runnable {
+
+        private final RowPublisher<T> publisher;
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile RowIterator<T> rows;
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private boolean done; // Only accessed by the drain loop
+        private boolean queued; // Guarded by the waiting queue of the publisher
+
+        private RowSubscription(RowPublisher<T> publisher, Flow.Subscriber<? super T> subscriber) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.invalidRequest = new IllegalArgumentException(String.format("Non-positive request %d", n));
+            } else {
+                long current;
+                do {
+                    current = this.requested.get();
+                    if (current == Long.MAX_VALUE) break;
+                } while (!this.requested.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            this.schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+            RowIterator<T> rows = this.rows;
+            if (rows != null) {
+                try {
+                    rows.cancel(); // Aborts a query blocking the drain loop, the loop closes the statement
+                } catch (SQLException e) {
+                    // The statement is closed by the drain loop in any case
+                }
+            }
+            this.schedule();
+        }
+
+        /**
+         * Runs the drain loop on the executor unless it is already running. If the executor rejects the drain loop, the
+         * subscription is finished on the calling thread, as nothing else could release its statement and connection.
+         * The work in progress counter is never reset in that case, so no drain loop can start afterwards.
+         */
+        private void schedule() {
+            if (this.wip.getAndIncrement() != 0) return;
+            try {
+                this.publisher.executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                if (!this.done) this.finish(e, !this.cancelled);
+            }
+        }
+
+        /**
+         * The drain loop, publishing as many rows as requested
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                this.drain();
+                missed = this.wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (this.done) return;
+            if (this.cancelled) {
+                this.finish(null, false);
+                return;
+            }
+            if (this.invalidRequest != null) {
+                this.finish(this.invalidRequest, true);
+                return;
+            }
+
+            try {
+                while (true) {
+                    long requested = this.requested.get();
+                    long emitted = 0;
+                    while (emitted != requested) {
+                        if (this.cancelled) {
+                            this.finish(null, false);
+                            return;
+                        }
+
+                        RowIterator<T> rows = this.rows;
+                        if (rows == null) {
+                            if (!this.publisher.acquire(this)) return; // Scheduled again once the connection is free
+                            this.rows = rows = this.publisher.query.execute(this.publisher.promise, this.publisher.connection);
+                        }
+                        if (!rows.hasNext()) {
+                            this.finish(null, true);
+                            return;
+                        }
+                        this.subscriber.onNext(rows.next());
+                        emitted++;
+                    }
+
+                    // An unbounded demand never leaves the loop above, other demands continue with what was requested since
+                    if (this.requested.addAndGet(-emitted) == 0) return;
+                }
+            } catch (SQLException e) {
+                this.finish(e, !this.cancelled); // A cancelled query fails in the driver, which is not signalled
+            } catch (UncheckedSQLException e) {
+                this.finish(e.getCause(), !this.cancelled);
+            } catch (RuntimeException e) {
+                this.finish(e, !this.cancelled); // Either the mapper or the subscriber failed
+            }
+        }
+
+        /**
+         * Closes the statement, hands the connection to the next subscription and signals the end of the rows, unless the
+         * subscription was cancelled
+         *
+         * @param failure the failure to signal or null to signal the completion
+         * @param signal if the subscriber should be signalled
+         */
+        private void finish(Throwable failure, boolean signal) {
+            this.done = true;
+            this.cancelled = true;
+            RowIterator<T> rows = this.rows;
+            if (rows != null) {
+                try {
+                    rows.close();
+                } catch (SQLException e) {
+                    if (failure != null) failure.addSuppressed(e);
+                    else failure = e;
+                }
+            }
+            this.publisher.release(this);
+
+            if (!signal) return;
+            if (failure == null) this.subscriber.onComplete();
+            else this.subscriber.onError(failure);
+        }
+    }
+}
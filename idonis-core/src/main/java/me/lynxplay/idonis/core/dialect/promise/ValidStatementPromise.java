@@ -28,17 +28,35 @@ import me.lynxplay.idonis.dialect.promise.StatementPromise;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * A valid implementation of the statement promise, which will delegate to {@link Connection#prepareStatement(String)}
  */
 public class ValidStatementPromise implements StatementPromise {
 
-    private String rawContent;
-    private Map<Integer, List<Integer>> replacement;
+    private static final StatementBinder<Object> NO_PARAMETERS = (statement, parameters) -> {
+    };
+
+    private final String rawContent;
+    private final ParameterTable parameterTable;
+    private final List<String> variables;
+    private final int[] parameterPositions;
+    private final VariableNames variableNames;
+    private final ListExpansion listExpansion;
+    private volatile ColumnIndex columns;
+    private final ConcurrentMap<Class<?>, ObjectBinder<?>> binders = new ConcurrentHashMap<>();
 
     /**
      * Creates a new {@link ValidStatementPromise} which will try to create the {@link PreparedStatement}
@@ -47,17 +65,485 @@ public class ValidStatementPromise implements StatementPromise {
      * @param replacement the variable replacements defined in the comment
      */
     public ValidStatementPromise(String rawContent, Map<Integer, List<Integer>> replacement) {
+        this(rawContent, ParameterTable.of(replacement));
+    }
+
+    /**
+     * Creates a new {@link ValidStatementPromise} which will try to create the {@link PreparedStatement}
+     *
+     * @param rawContent the raw string content
+     * @param parameterTable the table of the variable replacements, shared by all prepared statements
+     */
+    public ValidStatementPromise(String rawContent, ParameterTable parameterTable) {
+        this(rawContent, parameterTable, List.of());
+    }
+
+    /**
+     * Creates a new {@link ValidStatementPromise} which will try to create the {@link PreparedStatement}
+     *
+     * @param rawContent the raw string content
+     * @param parameterTable the table of the variable replacements, shared by all prepared statements
+     * @param variables the variables as declared in the comment, the first one being set on declared index 1
+     *
+     * @throws IllegalArgumentException if one of the variables is a list variable, which needs the positions of the
+     *                                  parameters
+     */
+    public ValidStatementPromise(String rawContent, ParameterTable parameterTable, List<String> variables) {
+        this(rawContent, parameterTable, variables, null);
+    }
+
+    /**
+     * Creates a new {@link ValidStatementPromise} which will try to create the {@link PreparedStatement}
+     *
+     * @param rawContent the raw string content
+     * @param parameterTable the table of the variable replacements, shared by all prepared statements
+     * @param variables the variables as declared in the comment, the first one being set on declared index 1
+     * @param parameterPositions the position of every {@code ?} in the raw content, ordered by their real index, or
+     *                           null if they are unknown
+     *
+     * @throws IllegalArgumentException if the amount of positions does not match the amount of parameters or one of the
+     *                                  variables is a list variable while the positions are unknown
+     */
+    public ValidStatementPromise(String rawContent, ParameterTable parameterTable, List<String> variables, int[] parameterPositions) {
+        if (parameterPositions != null && parameterPositions.length != parameterTable.parameterCount()) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected %d parameter positions, got %d", parameterTable.parameterCount(), parameterPositions.length
+            ));
+        }
         this.rawContent = rawContent;
-        this.replacement = replacement;
+        this.parameterTable = parameterTable;
+        this.variables = List.copyOf(variables);
+        this.parameterPositions = parameterPositions == null ? null : parameterPositions.clone();
+        this.variableNames = VariableNames.of(this.variables);
+        this.listExpansion = ListExpansion.of(this, this.variables, this.parameterPositions);
     }
 
+    /**
+     * Prepares the statement on the connection. If the {@link ParameterTable} of this promise is an identity mapping, the
+     * statement of the driver is returned as is, as there are no indices to translate. Otherwise it is wrapped into a
+     * {@link ValidStatementWrapper}.
+     *
+     * @param connection the connection to prepare the statement on
+     *
+     * @return the prepared statement
+     *
+     * @throws SQLException if the driver could not prepare the statement
+     */
     @Override
     public PreparedStatement prepare(Connection connection) throws SQLException {
-        return new ValidStatementWrapper(connection.prepareStatement(this.rawContent), replacement);
+        PreparedStatement statement = connection.prepareStatement(this.rawContent);
+        return this.parameterTable.isIdentity() ? statement : new ValidStatementWrapper(statement, this.parameterTable);
+    }
+
+    /**
+     * Prepares the statement with every list variable expanded to the size of the given list and sets the elements of
+     * the lists, see {@link #expand(int...)} and {@link #bindLists(PreparedStatement, Collection[])}. All other
+     * variables keep their declared index.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param lists the elements of every list variable, in the order they were declared in
+     *
+     * @return the prepared statement
+     *
+     * @throws SQLException if the driver could not prepare the statement or rejected one of the elements
+     * @throws IllegalArgumentException if the amount of lists does not match the amount of list variables or one of the
+     *                                  lists is empty
+     */
+    public PreparedStatement prepare(Connection connection, Collection<?>... lists) throws SQLException {
+        int[] sizes = new int[lists.length];
+        for (int i = 0; i < lists.length; i++) sizes[i] = lists[i].size();
+
+        PreparedStatement statement = this.expand(sizes).prepare(connection);
+        try {
+            this.bindLists(statement, lists);
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+        return statement;
+    }
+
+    /**
+     * Returns the promise in which every list variable, declared as e.g. {@code @ids[]}, is expanded to one {@code ?}
+     * per element. The sizes are rounded up to the next power of two and every combination is created only once, so
+     * the returned promises can be cached by e.g. a session. A list variable of a promise that is not expanded is set
+     * like any other variable. Lists may not be empty, as neither {@code IN ()} nor binding a placeholder value instead
+     * would keep the meaning of e.g. {@code NOT IN}.
+     *
+     * @param sizes the amount of elements of every list variable, in the order they were declared in
+     *
+     * @return the expanded promise or this promise if it has no list variables
+     *
+     * @throws IllegalArgumentException if the amount of sizes does not match the amount of list variables or one of the
+     *                                  sizes is smaller than 1
+     */
+    public ValidStatementPromise expand(int... sizes) {
+        if (this.listExpansion != null) return this.listExpansion.expand(sizes);
+        if (sizes.length != 0) throw new IllegalArgumentException(String.format("Expected 0 list sizes, got %d", sizes.length));
+        return this;
+    }
+
+    /**
+     * Sets the elements of the lists on a statement prepared from the {@link #expand(int...)} of their sizes. The
+     * elements follow behind the highest declared index of this promise and the remaining {@code ?} of a bucket are
+     * set to the last element.
+     *
+     * @param statement the statement prepared from the expanded promise
+     * @param lists the elements of every list variable, in the order they were declared in
+     *
+     * @throws SQLException if the statement rejected one of the elements
+     * @throws IllegalArgumentException if the amount of lists does not match the amount of list variables or one of the
+     *                                  lists is empty
+     */
+    public void bindLists(PreparedStatement statement, Collection<?>... lists) throws SQLException {
+        if (this.listExpansion != null) this.listExpansion.bind(statement, lists);
+        else if (lists.length != 0) throw new IllegalArgumentException(String.format("Expected 0 lists, got %d", lists.length));
     }
 
     @Override
     public boolean isPresent() {
         return true;
     }
+
+    /**
+     * Returns the raw SQL content this promise prepares, in which all variables were already replaced by {@code ?}
+     *
+     * @return the raw content
+     */
+    public String getRawContent() {
+        return this.rawContent;
+    }
+
+    /**
+     * Returns the replacement table of this promise, mapping each variable index to the {@code ?} indices it is set on.
+     * The map is built from the {@link #getParameterTable()} on every call.
+     *
+     * @return the replacement table
+     */
+    public Map<Integer, List<Integer>> getReplacement() {
+        return this.parameterTable.toMap();
+    }
+
+    /**
+     * Returns the parameter table of this promise, which all prepared statements share
+     *
+     * @return the parameter table
+     */
+    public ParameterTable getParameterTable() {
+        return this.parameterTable;
+    }
+
+    /**
+     * Returns the variables as they were declared in the comment of the script, e.g. {@code @first_name}. The variable
+     * at list index {@code i} is set on the declared index {@code i + 1}. Promises that were not parsed from a script
+     * may not know their variables, in which case the list is empty.
+     *
+     * @return the unmodifiable list of variables
+     */
+    public List<String> getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Returns the position of every {@code ?} in the raw content, ordered by their real index. Promises that were not
+     * parsed from a script may not know the positions.
+     *
+     * @return a copy of the positions or null if they are unknown
+     */
+    public int[] getParameterPositions() {
+        return this.parameterPositions == null ? null : this.parameterPositions.clone();
+    }
+
+    /**
+     * Returns the table resolving the names of the variables to their declared index, which all named statements
+     * prepared from this promise share
+     *
+     * @return the variable names
+     */
+    public VariableNames getVariableNames() {
+        return this.variableNames;
+    }
+
+    /**
+     * Prepares the statement on the connection and wraps it into a {@link NamedStatement}, which can be bound by the
+     * names of the variables
+     *
+     * @param connection the connection to prepare the statement on
+     *
+     * @return the named statement
+     *
+     * @throws SQLException if the driver could not prepare the statement
+     */
+    public NamedStatement prepareNamed(Connection connection) throws SQLException {
+        return new NamedStatement(this.prepare(connection), this.variableNames);
+    }
+
+    /**
+     * Binds all rows onto a single statement prepared from this promise and executes them in batches of at most the
+     * given size. Only one batch is held by the statement at a time, the rows are consumed lazily.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param rows the rows to execute
+     * @param binder the binder setting the values of a row, e.g. an {@link ObjectBinder}
+     * @param batchSize the maximum amount of rows per batch
+     * @param <T> the type of the rows
+     *
+     * @return the aggregated result of all batches
+     *
+     * @throws SQLException if a row could not be bound or a batch failed
+     */
+    public <T> BatchResult executeBatch(Connection connection, Iterable<? extends T> rows, StatementBinder<? super T> binder,
+                                        int batchSize) throws SQLException {
+        return BatchExecutor.execute(this, connection, rows.iterator(), binder, batchSize, false);
+    }
+
+    /**
+     * Binds all rows onto a single statement prepared from this promise and executes them in batches of at most the
+     * given size. If requested and the connection is not in auto commit mode, the connection is committed after every
+     * batch, so a failing import keeps the batches executed before the failure.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param rows the rows to execute, consumed lazily
+     * @param binder the binder setting the values of a row, e.g. an {@link ObjectBinder}
+     * @param batchSize the maximum amount of rows per batch
+     * @param commitPerBatch if the connection is committed after every batch
+     * @param <T> the type of the rows
+     *
+     * @return the aggregated result of all batches
+     *
+     * @throws SQLException if a row could not be bound, a batch failed or could not be committed
+     */
+    public <T> BatchResult executeBatch(Connection connection, Iterable<? extends T> rows, StatementBinder<? super T> binder,
+                                        int batchSize, boolean commitPerBatch) throws SQLException {
+        return BatchExecutor.execute(this, connection, rows.iterator(), binder, batchSize, commitPerBatch);
+    }
+
+    /**
+     * Binds all rows onto a single statement prepared from this promise and executes them in batches of at most the
+     * given size, optionally committing the connection after every batch
+     *
+     * @param connection the connection to prepare the statement on
+     * @param rows the rows to execute, consumed lazily
+     * @param binder the binder setting the values of a row, e.g. an {@link ObjectBinder}
+     * @param batchSize the maximum amount of rows per batch
+     * @param commitPerBatch if the connection is committed after every batch
+     * @param <T> the type of the rows
+     *
+     * @return the aggregated result of all batches
+     *
+     * @throws SQLException if a row could not be bound, a batch failed or could not be committed
+     * @see #executeBatch(Connection, Iterable, StatementBinder, int, boolean)
+     */
+    public <T> BatchResult executeBatch(Connection connection, Stream<? extends T> rows, StatementBinder<? super T> binder,
+                                        int batchSize, boolean commitPerBatch) throws SQLException {
+        return BatchExecutor.execute(this, connection, rows.iterator(), binder, batchSize, commitPerBatch);
+    }
+
+    /**
+     * Runs the query and maps every row of its result
+     *
+     * @param connection the connection to prepare the statement on
+     * @param mapper the mapper of the rows
+     * @param <T> the type of the rows
+     *
+     * @return the mapped rows
+     *
+     * @throws SQLException if the query failed or a row could not be mapped
+     */
+    public <T> List<T> query(Connection connection, RowMapper<T> mapper) throws SQLException {
+        return this.query(connection, null, NO_PARAMETERS, mapper);
+    }
+
+    /**
+     * Binds the parameters, runs the query and maps every row of its result. The statement and its result are closed
+     * before this method returns.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param parameters the value to bind, e.g. a record bound by its {@link #binder(Class)}
+     * @param binder the binder setting the parameters
+     * @param mapper the mapper of the rows, which can read the columns by label at the cost of reading them by index
+     * @param <P> the type of the parameters
+     * @param <T> the type of the rows
+     *
+     * @return the mapped rows
+     *
+     * @throws SQLException if the parameters could not be bound, the query failed or a row could not be mapped
+     */
+    public <P, T> List<T> query(Connection connection, P parameters, StatementBinder<? super P> binder, RowMapper<T> mapper) throws SQLException {
+        return QueryExecutor.query(this, this.prepare(connection), parameters, binder, mapper);
+    }
+
+    /**
+     * Binds the parameters, runs the query and maps the first row of its result, limiting the result to a single row
+     *
+     * @param connection the connection to prepare the statement on
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param mapper the mapper of the row
+     * @param <P> the type of the parameters
+     * @param <T> the type of the row
+     *
+     * @return the mapped row or an empty optional if there is no row or it was mapped to null
+     *
+     * @throws SQLException if the parameters could not be bound, the query failed or the row could not be mapped
+     */
+    public <P, T> Optional<T> queryFirst(Connection connection, P parameters, StatementBinder<? super P> binder, RowMapper<T> mapper) throws SQLException {
+        return QueryExecutor.queryFirst(this, this.prepare(connection), parameters, binder, mapper);
+    }
+
+    /**
+     * Runs the query and returns a lazy stream of its mapped rows, see {@link #stream(Connection, Object,
+     * StatementBinder, RowMapper, int)}
+     *
+     * @param connection the connection to prepare the statement on
+     * @param mapper the mapper of the rows
+     * @param fetchSize the amount of rows the driver should fetch at once or 0 to use the default of the driver
+     * @param <T> the type of the rows
+     *
+     * @return the stream, which has to be closed
+     *
+     * @throws SQLException if the query failed
+     */
+    public <T> Stream<T> stream(Connection connection, RowMapper<T> mapper, int fetchSize) throws SQLException {
+        return this.iterate(connection, null, NO_PARAMETERS, mapper, fetchSize).stream();
+    }
+
+    /**
+     * Binds the parameters, runs the query and returns a lazy stream of its mapped rows. Rows are read from the result
+     * and mapped only when the stream consumes them, so the memory used does not grow with the size of the result.
+     * Closing the stream closes the statement and its result, a stream that is not consumed until its end has to be
+     * closed by a try-with-resources block. Failures while consuming the stream are thrown as
+     * {@link UncheckedSQLException}.
+     * <p>
+     * The fetch size is passed to the driver as is. Some drivers only honour it under further conditions, e.g.
+     * PostgreSQL outside of auto commit mode, or use special values, e.g. {@link Integer#MIN_VALUE} to stream rows with
+     * MySQL Connector/J.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param mapper the mapper of the rows
+     * @param fetchSize the amount of rows the driver should fetch at once or 0 to use the default of the driver
+     * @param <P> the type of the parameters
+     * @param <T> the type of the rows
+     *
+     * @return the stream, which has to be closed
+     *
+     * @throws SQLException if the parameters could not be bound or the query failed
+     */
+    public <P, T> Stream<T> stream(Connection connection, P parameters, StatementBinder<? super P> binder, RowMapper<T> mapper,
+                                   int fetchSize) throws SQLException {
+        return this.iterate(connection, parameters, binder, mapper, fetchSize).stream();
+    }
+
+    /**
+     * Binds the parameters, runs the query and returns an iterator mapping its rows lazily, see {@link
+     * #stream(Connection, Object, StatementBinder, RowMapper, int)}
+     *
+     * @param connection the connection to prepare the statement on
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param mapper the mapper of the rows
+     * @param fetchSize the amount of rows the driver should fetch at once or 0 to use the default of the driver
+     * @param <P> the type of the parameters
+     * @param <T> the type of the rows
+     *
+     * @return the iterator, which has to be closed unless it is consumed until its end
+     *
+     * @throws SQLException if the parameters could not be bound or the query failed
+     */
+    public <P, T> RowIterator<T> iterate(Connection connection, P parameters, StatementBinder<? super P> binder, RowMapper<T> mapper,
+                                         int fetchSize) throws SQLException {
+        return QueryExecutor.iterate(this, this.prepare(connection), parameters, binder, mapper, fetchSize);
+    }
+
+    /**
+     * Returns a publisher of the mapped rows of the query. Every subscription binds the parameters and runs the query
+     * on its own statement of the connection once the subscriber requests the first row, the subscriptions of the
+     * publisher use the connection one after another. Rows are read only as they are requested, the calls of the driver
+     * run on the executor, which should be dedicated to blocking work. Cancelling a subscription aborts a running query
+     * and closes its statement.
+     *
+     * @param connection the connection to prepare the statements on
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param mapper the mapper of the rows
+     * @param fetchSize the amount of rows the driver should fetch at once or 0 to use the default of the driver
+     * @param executor the executor running the blocking calls of the driver
+     * @param <P> the type of the parameters
+     * @param <T> the type of the rows
+     *
+     * @return the publisher
+     */
+    public <P, T> RowPublisher<T> publish(Connection connection, P parameters, StatementBinder<? super P> binder, RowMapper<T> mapper,
+                                          int fetchSize, Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        return new RowPublisher<>(this, connection, (promise, c) -> promise.iterate(c, parameters, binder, mapper, fetchSize), executor);
+    }
+
+    /**
+     * Runs the update
+     *
+     * @param connection the connection to prepare the statement on
+     *
+     * @return the update count
+     *
+     * @throws SQLException if the update failed
+     */
+    public int update(Connection connection) throws SQLException {
+        return this.update(connection, null, NO_PARAMETERS);
+    }
+
+    /**
+     * Binds the parameters and runs the update. The statement is closed before this method returns.
+     *
+     * @param connection the connection to prepare the statement on
+     * @param parameters the value to bind
+     * @param binder the binder setting the parameters
+     * @param <P> the type of the parameters
+     *
+     * @return the update count
+     *
+     * @throws SQLException if the parameters could not be bound or the update failed
+     */
+    public <P> int update(Connection connection, P parameters, StatementBinder<? super P> binder) throws SQLException {
+        return QueryExecutor.update(this.prepare(connection), parameters, binder);
+    }
+
+    /**
+     * Returns the index of the columns of the result of this promise. The index is computed from the meta data of the
+     * first result and reused as long as the results have the same column labels, e.g. a {@code SELECT *} is indexed
+     * again once the table changed.
+     *
+     * @param resultSet the result of a statement prepared from this promise
+     *
+     * @return the column index
+     *
+     * @throws SQLException if the meta data of the result could not be read
+     */
+    public ColumnIndex columns(ResultSet resultSet) throws SQLException {
+        ColumnIndex columns = this.columns;
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        if (columns == null || !columns.matches(metaData)) this.columns = columns = ColumnIndex.of(metaData);
+        return columns;
+    }
+
+    /**
+     * Returns the binder setting the properties of instances of the type onto statements prepared from this promise.
+     * The binder is created on the first call for the type and cached by this promise afterwards.
+     *
+     * @param type the type of the records or beans to bind
+     * @param <T> the type
+     *
+     * @return the binder
+     *
+     * @throws IllegalArgumentException if one of the variables has no matching property in the type
+     * @see ObjectBinder
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ObjectBinder<T> binder(Class<T> type) {
+        ObjectBinder<?> binder = this.binders.get(type);
+        if (binder == null) binder = this.binders.computeIfAbsent(type, t -> new ObjectBinder<>(this, t));
+        return (ObjectBinder<T>) binder;
+    }
 }
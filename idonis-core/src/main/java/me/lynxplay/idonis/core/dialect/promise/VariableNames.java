@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The immutable table of the variables declared by a script, resolving the name of a variable to its declared index.
+ * Every variable can be looked up by its name without the surrounding characters, e.g. {@code first_name}, or as it
+ * was declared, e.g. {@code @first_name}. The names are interned and placed into a perfect hash table once, which
+ * gives every name a slot of its own, so a lookup uses the cached hash code of the name and compares a single key. For
+ * names passed as string literals the comparison is an identity check. If a name is declared twice, the first
+ * declaration wins.
+ */
+public final class VariableNames {
+
+    private static final VariableNames EMPTY = new VariableNames(List.of());
+
+    private final List<String> names;
+    private final String[] keys;
+    private final int[] indices;
+    private final int mask;
+    private final int shift;
+    private final boolean perfect;
+
+    private VariableNames(List<String> variables) {
+        List<String> names = new ArrayList<>(variables.size());
+        Map<String, Integer> indices = new HashMap<>(variables.size() * 4);
+        for (int i = 0; i < variables.size(); i++) {
+            String name = name(variables.get(i)).intern(); // Names passed as literals then match by identity
+            names.add(name);
+            indices.putIfAbsent(name, i + 1);
+            indices.putIfAbsent(variables.get(i).intern(), i + 1);
+        }
+        this.names = Collections.unmodifiableList(names);
+
+        // Search a table size and shift that place every key into its own slot, growing the table a few times
+        for (int size = tableSize(indices.size() * 2); size <= tableSize(indices.size() * 16); size <<= 1) {
+            for (int shift = 0; shift < 32; shift += 4) {
+                String[] keys = new String[size];
+                int[] values = new int[size];
+                if (place(indices, keys, values, shift)) {
+                    this.keys = keys;
+                    this.indices = values;
+                    this.mask = size - 1;
+                    this.shift = shift;
+                    this.perfect = true;
+                    return;
+                }
+            }
+        }
+
+        int size = tableSize(indices.size() * 2);
+        this.keys = new String[size];
+        this.indices = new int[size];
+        this.mask = size - 1;
+        this.shift = 16;
+        this.perfect = false;
+        for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+            int slot = this.slot(entry.getKey());
+            while (this.keys[slot] != null) slot = (slot + 1) & this.mask;
+            this.keys[slot] = entry.getKey();
+            this.indices[slot] = entry.getValue();
+        }
+    }
+
+    /**
+     * Creates the table of the declared variables
+     *
+     * @param variables the variables as declared, the first one being set on declared index 1
+     *
+     * @return the table
+     */
+    public static VariableNames of(List<String> variables) {
+        return variables.isEmpty() ? EMPTY : new VariableNames(variables);
+    }
+
+    /**
+     * Returns the declared index of the variable
+     *
+     * @param name the name of the variable, with or without the characters it was declared with
+     *
+     * @return the declared index or -1 if there is no such variable
+     */
+    public int indexOf(String name) {
+        int slot = this.slot(name);
+        String key = this.keys[slot];
+        if (key == name || (key != null && key.equals(name))) return this.indices[slot];
+        if (this.perfect) return -1;
+
+        for (slot = (slot + 1) & this.mask; this.keys[slot] != null; slot = (slot + 1) & this.mask) {
+            if (this.keys[slot].equals(name)) return this.indices[slot];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the name of the variable at the declared index, without the characters it was declared with
+     *
+     * @param declaredIndex the declared index, starting at 1
+     *
+     * @return the name
+     *
+     * @throws IndexOutOfBoundsException if there is no variable at the index
+     */
+    public String name(int declaredIndex) {
+        return this.names.get(declaredIndex - 1);
+    }
+
+    /**
+     * Returns the amount of declared variables
+     *
+     * @return the amount of variables
+     */
+    public int size() {
+        return this.names.size();
+    }
+
+    /**
+     * Computes the slot of the name
+     *
+     * @param name the name
+     *
+     * @return the slot
+     */
+    private int slot(String name) {
+        int hash = name.hashCode();
+        return (hash ^ (hash >>> this.shift)) & this.mask;
+    }
+
+    /**
+     * Tries to place every key into its own slot
+     *
+     * @param entries the keys and their indices
+     * @param keys the key table to fill
+     * @param values the index table to fill
+     * @param shift the shift folding the upper bits of the hash into the slot
+     *
+     * @return if no two keys share a slot
+     */
+    private static boolean place(Map<String, Integer> entries, String[] keys, int[] values, int shift) {
+        for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+            int hash = entry.getKey().hashCode();
+            int slot = (hash ^ (hash >>> shift)) & (keys.length - 1);
+            if (keys[slot] != null) return false;
+            keys[slot] = entry.getKey();
+            values[slot] = entry.getValue();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the smallest power of two that is at least the capacity
+     *
+     * @param capacity the capacity
+     *
+     * @return the table size
+     */
+    private static int tableSize(int capacity) {
+        return Math.max(2, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+    }
+
+    /**
+     * Strips the characters surrounding the name of a declared variable, e.g. the {@code @} of {@code @first_name}
+     *
+     * @param variable the declared variable
+     *
+     * @return the name of the variable
+     */
+    public static String name(String variable) {
+        int start = 0;
+        int end = variable.length();
+        while (start < end && !Character.isJavaIdentifierPart(variable.charAt(start))) start++;
+        while (end > start && !Character.isJavaIdentifierPart(variable.charAt(end - 1))) end--;
+        return variable.substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VariableNames%s", this.names);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise.parser;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Finds all occurrences of a fixed set of patterns in a single pass using an Aho-Corasick automaton. Matches are
+ * reported leftmost-longest and never overlap, so of two patterns starting at the same position the longer one wins,
+ * e.g. {@code @id_two} is never reported as {@code @id} followed by {@code _two}.
+ * <p>
+ * The automaton stores the transitions of every state as a small sorted array, which keeps building it cheap enough to
+ * build one for every parsed script.
+ */
+final class MultiPatternMatcher {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final int[] patternLengths;
+    private final BitSet firstChars = new BitSet();
+
+    private int states;
+    private char[][] labels;
+    private int[][] targets;
+    private int[] fail;
+    private int[] depth;
+    private int[] output; // The longest pattern that is a suffix of the state, or -1
+
+    /**
+     * Builds the automaton for the given patterns. A pattern is identified by its index in the list. Empty patterns
+     * never match, of two equal patterns only the first one is reported.
+     *
+     * @param patterns the patterns to find
+     */
+    MultiPatternMatcher(List<String> patterns) {
+        this.patternLengths = new int[patterns.size()];
+        int capacity = 1;
+        for (String pattern : patterns) capacity += pattern.length();
+
+        this.labels = new char[capacity][];
+        this.targets = new int[capacity][];
+        this.fail = new int[capacity];
+        this.depth = new int[capacity];
+        this.output = new int[capacity];
+        this.newState(0);
+
+        for (int i = 0; i < patterns.size(); i++) {
+            String pattern = patterns.get(i);
+            this.patternLengths[i] = pattern.length();
+            if (pattern.isEmpty()) continue;
+
+            this.firstChars.set(pattern.charAt(0));
+            int state = 0;
+            for (int j = 0; j < pattern.length(); j++) {
+                int next = this.child(state, pattern.charAt(j));
+                if (next < 0) next = this.addChild(state, pattern.charAt(j));
+                state = next;
+            }
+            if (this.output[state] < 0) this.output[state] = i;
+        }
+        this.buildFailLinks();
+    }
+
+    /**
+     * Reports all leftmost-longest matches of the patterns inside the given range of the text in ascending order
+     *
+     * @param text the text to search
+     * @param from the first index to search, inclusive
+     * @param to the last index to search, exclusive
+     * @param listener the listener to report the matches to
+     */
+    void match(CharSequence text, int from, int to, MatchListener listener) {
+        int state = 0;
+        int bestPattern = -1;
+        int bestStart = 0;
+        int bestEnd = 0;
+
+        int position = from;
+        while (true) {
+            if (position >= to) {
+                if (bestPattern < 0) break;
+
+                // The text ended, so the pending match is final. Matches may still begin behind it.
+                listener.onMatch(bestPattern, bestStart, bestEnd);
+                bestPattern = -1;
+                state = 0;
+                position = bestEnd;
+                continue;
+            }
+
+            char c = text.charAt(position);
+            if (state == 0 && !this.firstChars.get(c)) { // Skip chars that cannot start a match without any lookup
+                position++;
+                continue;
+            }
+
+            state = this.next(state, c);
+            if (bestPattern >= 0 && position - this.depth[state] + 1 > bestStart) {
+                // No match still in progress can start at or before the pending match, so it is final
+                listener.onMatch(bestPattern, bestStart, bestEnd);
+                bestPattern = -1;
+                state = 0;
+                position = bestEnd; // Scan the text behind the match again, matches must not overlap
+                continue;
+            }
+
+            int pattern = this.output[state];
+            if (pattern >= 0) {
+                int start = position - this.patternLengths[pattern] + 1;
+                if (bestPattern < 0 || start < bestStart || (start == bestStart && position + 1 > bestEnd)) {
+                    bestPattern = pattern;
+                    bestStart = start;
+                    bestEnd = position + 1;
+                }
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Follows the transition of the state for the given char, falling back along the fail links if the state has no
+     * such transition
+     *
+     * @param state the current state
+     * @param c the next char
+     *
+     * @return the next state
+     */
+    private int next(int state, char c) {
+        while (true) {
+            int child = this.child(state, c);
+            if (child >= 0) return child;
+            if (state == 0) return 0;
+            state = this.fail[state];
+        }
+    }
+
+    /**
+     * Returns the child of the state for the given char
+     *
+     * @param state the state
+     * @param c the char
+     *
+     * @return the child or -1 if there is none
+     */
+    private int child(int state, char c) {
+        int index = Arrays.binarySearch(this.labels[state], c);
+        return index >= 0 ? this.targets[state][index] : -1;
+    }
+
+    /**
+     * Adds a new child to the state, keeping its transitions sorted
+     *
+     * @param state the parent state
+     * @param c the char of the transition
+     *
+     * @return the new child state
+     */
+    private int addChild(int state, char c) {
+        int child = this.newState(this.depth[state] + 1);
+        char[] oldLabels = this.labels[state];
+        int[] oldTargets = this.targets[state];
+        int insert = -Arrays.binarySearch(oldLabels, c) - 1;
+
+        char[] newLabels = new char[oldLabels.length + 1];
+        int[] newTargets = new int[oldTargets.length + 1];
+        System.arraycopy(oldLabels, 0, newLabels, 0, insert);
+        System.arraycopy(oldTargets, 0, newTargets, 0, insert);
+        newLabels[insert] = c;
+        newTargets[insert] = child;
+        System.arraycopy(oldLabels, insert, newLabels, insert + 1, oldLabels.length - insert);
+        System.arraycopy(oldTargets, insert, newTargets, insert + 1, oldTargets.length - insert);
+
+        this.labels[state] = newLabels;
+        this.targets[state] = newTargets;
+        return child;
+    }
+
+    /**
+     * Allocates a new state without any transitions
+     *
+     * @param stateDepth the depth of the state in the trie
+     *
+     * @return the new state
+     */
+    private int newState(int stateDepth) {
+        int state = this.states++;
+        this.labels[state] = NO_LABELS;
+        this.targets[state] = NO_TARGETS;
+        this.depth[state] = stateDepth;
+        this.output[state] = -1;
+        return state;
+    }
+
+    /**
+     * Computes the fail link of every state in breadth first order and inherits the output of the fail link if the
+     * state itself does not end a pattern
+     */
+    private void buildFailLinks() {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : this.targets[0]) {
+            this.fail[child] = 0;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < this.labels[state].length; i++) {
+                int child = this.targets[state][i];
+                int fallback = this.fail[state];
+                while (fallback != 0 && this.child(fallback, this.labels[state][i]) < 0) fallback = this.fail[fallback];
+
+                int failTarget = this.child(fallback, this.labels[state][i]);
+                this.fail[child] = Math.max(failTarget, 0);
+                if (this.output[child] < 0) this.output[child] = this.output[this.fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Receives the matches found by {@link #match(CharSequence, int, int, MatchListener)}
+     */
+    interface MatchListener {
+
+        /**
+         * Called for every match
+         *
+         * @param pattern the index of the matched pattern
+         * @param start the index of the first char of the match, inclusive
+         * @param end the index behind the last char of the match, exclusive
+         */
+        void onMatch(int pattern, int start, int end);
+    }
+}
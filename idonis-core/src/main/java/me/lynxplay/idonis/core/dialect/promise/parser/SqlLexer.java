@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.lynxplay.idonis.core.dialect.promise.parser;
+
+/**
+ * Splits a script into {@link SqlTokens} in a single pass, respecting the quoting and comment rules of a {@link
+ * SqlSyntax}. Unterminated literals and comments extend to the end of the script instead of failing, as the database is
+ * in a better position to report them.
+ */
+public final class SqlLexer {
+
+    private final SqlSyntax syntax;
+
+    /**
+     * Creates a new lexer for the given syntax
+     *
+     * @param syntax the rules to respect
+     */
+    public SqlLexer(SqlSyntax syntax) {
+        this.syntax = syntax;
+    }
+
+    /**
+     * Tokenizes the script
+     *
+     * @param source the script
+     *
+     * @return the tokens of the script
+     */
+    public SqlTokens tokenize(String source) {
+        SqlTokens.Builder tokens = new SqlTokens.Builder(source);
+        int length = source.length();
+        int position = 0;
+        while (position < length) {
+            char c = source.charAt(position);
+            int start = position;
+
+            if (isWhitespace(c)) {
+                do position++; while (position < length && isWhitespace(source.charAt(position)));
+                tokens.add(SqlTokenType.WHITESPACE, start);
+            } else if (this.startsLineComment(source, position)) {
+                while (position < length && source.charAt(position) != '\n' && source.charAt(position) != '\r') position++;
+                tokens.add(SqlTokenType.LINE_COMMENT, start);
+            } else if (c == '/' && position + 1 < length && source.charAt(position + 1) == '*') {
+                int end = source.indexOf("*/", position + 2);
+                position = end < 0 ? length : end + 2;
+                tokens.add(SqlTokenType.BLOCK_COMMENT, start);
+            } else if (c == '\'') {
+                position = this.skipQuoted(source, position, '\'', this.syntax.backslashEscapes());
+                tokens.add(SqlTokenType.STRING, start);
+            } else if (c == '"') {
+                boolean string = this.syntax.doubleQuotedStrings();
+                position = this.skipQuoted(source, position, '"', string && this.syntax.backslashEscapes());
+                tokens.add(string ? SqlTokenType.STRING : SqlTokenType.QUOTED_IDENTIFIER, start);
+            } else if (c == '`') {
+                position = this.skipQuoted(source, position, '`', false);
+                tokens.add(SqlTokenType.QUOTED_IDENTIFIER, start);
+            } else if (c == '[' && this.syntax.bracketIdentifiers()) {
+                int end = source.indexOf(']', position + 1);
+                position = end < 0 ? length : end + 1;
+                tokens.add(SqlTokenType.QUOTED_IDENTIFIER, start);
+            } else {
+                position++;
+                tokens.add(SqlTokenType.CODE, start); // Consecutive code chars are merged into a single token
+            }
+        }
+        return tokens.build();
+    }
+
+    /**
+     * Returns the syntax this lexer respects
+     *
+     * @return the syntax
+     */
+    public SqlSyntax syntax() {
+        return this.syntax;
+    }
+
+    /**
+     * Returns if a line comment starts at the given position
+     *
+     * @param source the script
+     * @param position the position
+     *
+     * @return if a line comment starts
+     */
+    private boolean startsLineComment(String source, int position) {
+        char c = source.charAt(position);
+        if (c == '#') return this.syntax.hashComments();
+        if (c != '-' || position + 1 >= source.length() || source.charAt(position + 1) != '-') return false;
+        if (!this.syntax.dashCommentsNeedWhitespace()) return true;
+        return position + 2 >= source.length() || isWhitespace(source.charAt(position + 2));
+    }
+
+    /**
+     * Skips a quoted literal. The quote is escaped by doubling it and, if enabled, by a preceding backslash.
+     *
+     * @param source the script
+     * @param position the position of the opening quote
+     * @param quote the quote char
+     * @param backslashEscapes if a backslash escapes the next char
+     *
+     * @return the position behind the closing quote
+     */
+    private int skipQuoted(String source, int position, char quote, boolean backslashEscapes) {
+        int length = source.length();
+        position++;
+        while (position < length) {
+            char c = source.charAt(position++);
+            if (c == '\\' && backslashEscapes) {
+                position++;
+            } else if (c == quote) {
+                if (position < length && source.charAt(position) == quote) position++; // Doubled quote
+                else return position;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns if the char is SQL whitespace
+     *
+     * @param c the char
+     *
+     * @return if it is whitespace
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0x0B;
+    }
+}
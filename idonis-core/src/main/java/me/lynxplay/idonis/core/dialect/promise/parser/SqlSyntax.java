@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.lynxplay.idonis.core.dialect.promise.parser;
+
+import me.lynxplay.idonis.dialect.SQLDialect;
+
+/**
+ * Describes the lexical rules of a SQL dialect the {@link SqlLexer} has to respect, i.e. how literals and identifiers
+ * are quoted and how comments are started.
+ */
+public final class SqlSyntax {
+
+    /**
+     * The rules of standard SQL. Strings are quoted using {@code '}, identifiers using {@code "} or backticks and line
+     * comments start with {@code --}.
+     */
+    public static final SqlSyntax ANSI = new SqlSyntax("ANSI", false, false, false, false, false);
+
+    /**
+     * The rules of MySQL. Both {@code '} and {@code "} quote strings in which a backslash escapes the next character,
+     * backticks quote identifiers, line comments start with {@code #} or with {@code --} followed by whitespace.
+     */
+    public static final SqlSyntax MYSQL = new SqlSyntax("MYSQL", true, true, true, true, false);
+
+    /**
+     * The rules of SQLite. Strings are quoted using {@code '}, identifiers using {@code "}, backticks or square
+     * brackets and line comments start with {@code --}.
+     */
+    public static final SqlSyntax SQLITE = new SqlSyntax("SQLITE", false, false, false, false, true);
+
+    private final String name;
+    private final boolean backslashEscapes;
+    private final boolean doubleQuotedStrings;
+    private final boolean hashComments;
+    private final boolean dashCommentsNeedWhitespace;
+    private final boolean bracketIdentifiers;
+
+    private SqlSyntax(String name, boolean backslashEscapes, boolean doubleQuotedStrings, boolean hashComments,
+                      boolean dashCommentsNeedWhitespace, boolean bracketIdentifiers) {
+        this.name = name;
+        this.backslashEscapes = backslashEscapes;
+        this.doubleQuotedStrings = doubleQuotedStrings;
+        this.hashComments = hashComments;
+        this.dashCommentsNeedWhitespace = dashCommentsNeedWhitespace;
+        this.bracketIdentifiers = bracketIdentifiers;
+    }
+
+    /**
+     * Returns the rules of the given dialect
+     *
+     * @param dialect the dialect
+     *
+     * @return the rules of the dialect
+     */
+    public static SqlSyntax of(SQLDialect dialect) {
+        switch (dialect) {
+            case MYSQL:
+                return MYSQL;
+            case SQLITE:
+                return SQLITE;
+            default:
+                return ANSI;
+        }
+    }
+
+    /**
+     * Returns if a backslash inside a quoted string escapes the following character
+     *
+     * @return if backslashes escape
+     */
+    public boolean backslashEscapes() {
+        return this.backslashEscapes;
+    }
+
+    /**
+     * Returns if {@code "} quotes a string instead of an identifier
+     *
+     * @return if double quotes quote strings
+     */
+    public boolean doubleQuotedStrings() {
+        return this.doubleQuotedStrings;
+    }
+
+    /**
+     * Returns if {@code #} starts a line comment
+     *
+     * @return if hash comments are supported
+     */
+    public boolean hashComments() {
+        return this.hashComments;
+    }
+
+    /**
+     * Returns if {@code --} only starts a line comment when followed by whitespace
+     *
+     * @return if dash comments need whitespace
+     */
+    public boolean dashCommentsNeedWhitespace() {
+        return this.dashCommentsNeedWhitespace;
+    }
+
+    /**
+     * Returns if square brackets quote identifiers
+     *
+     * @return if bracket identifiers are supported
+     */
+    public boolean bracketIdentifiers() {
+        return this.bracketIdentifiers;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
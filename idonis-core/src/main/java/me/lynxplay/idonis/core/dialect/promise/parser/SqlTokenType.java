@@ -0,0 +1,59 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.lynxplay.idonis.core.dialect.promise.parser;
+
+/**
+ * The kinds of tokens the {@link SqlLexer} splits a script into
+ */
+public enum SqlTokenType {
+    /**
+     * A run of whitespace characters
+     */
+    WHITESPACE,
+
+    /**
+     * A comment running until the end of its line, not including the line break
+     */
+    LINE_COMMENT,
+
+    /**
+     * A block comment, which may span several lines
+     */
+    BLOCK_COMMENT,
+
+    /**
+     * A string literal, including its quotes
+     */
+    STRING,
+
+    /**
+     * A quoted identifier, including its quotes
+     */
+    QUOTED_IDENTIFIER,
+
+    /**
+     * A run of plain SQL, i.e. keywords, unquoted identifiers, operators, numbers, variables and parameters
+     */
+    CODE
+}
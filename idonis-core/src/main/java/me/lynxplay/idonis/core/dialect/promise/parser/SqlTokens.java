@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package me.lynxplay.idonis.core.dialect.promise.parser;
+
+import java.util.Arrays;
+
+/**
+ * The tokens of a single script as produced by the {@link SqlLexer}. Tokens are stored as parallel primitive arrays
+ * instead of token objects and always cover the whole script without gaps, so a token ends where the next one starts.
+ * The stream is immutable and can be consumed by any number of passes.
+ */
+public final class SqlTokens {
+
+    private static final SqlTokenType[] TYPES = SqlTokenType.values();
+
+    private final String source;
+    private final byte[] types;
+    private final int[] starts;
+    private final int size;
+
+    /**
+     * Creates a new token stream
+     *
+     * @param source the tokenized script
+     * @param types the ordinal of the type of every token
+     * @param starts the start index of every token
+     * @param size the amount of tokens
+     */
+    SqlTokens(String source, byte[] types, int[] starts, int size) {
+        this.source = source;
+        this.types = types;
+        this.starts = starts;
+        this.size = size;
+    }
+
+    /**
+     * Returns the tokenized script
+     *
+     * @return the source
+     */
+    public String source() {
+        return this.source;
+    }
+
+    /**
+     * Returns the amount of tokens
+     *
+     * @return the amount of tokens
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the type of the token
+     *
+     * @param index the index of the token
+     *
+     * @return the type
+     */
+    public SqlTokenType type(int index) {
+        return TYPES[this.types[this.checkIndex(index)]];
+    }
+
+    /**
+     * Returns the index of the first character of the token in the source
+     *
+     * @param index the index of the token
+     *
+     * @return the start index, inclusive
+     */
+    public int start(int index) {
+        return this.starts[this.checkIndex(index)];
+    }
+
+    /**
+     * Returns the index behind the last character of the token in the source
+     *
+     * @param index the index of the token
+     *
+     * @return the end index, exclusive
+     */
+    public int end(int index) {
+        return this.checkIndex(index) + 1 < this.size ? this.starts[index + 1] : this.source.length();
+    }
+
+    /**
+     * Returns the text of the token
+     *
+     * @param index the index of the token
+     *
+     * @return the text
+     */
+    public String text(int index) {
+        return this.source.substring(this.start(index), this.end(index));
+    }
+
+    /**
+     * Returns the index of the first token of the given type
+     *
+     * @param type the type to find
+     *
+     * @return the index of the token or -1 if there is no such token
+     */
+    public int indexOf(SqlTokenType type) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.types[i] == type.ordinal()) return i;
+        }
+        return -1;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException(String.format("Token %d of %d", index, this.size));
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("SqlTokens{");
+        for (int i = 0; i < this.size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(this.type(i)).append(": '").append(this.text(i)).append('\'');
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Collects the tokens while the lexer runs
+     */
+    static final class Builder {
+
+        private final String source;
+        private byte[] types = new byte[16];
+        private int[] starts = new int[16];
+        private int size;
+
+        Builder(String source) {
+            this.source = source;
+        }
+
+        /**
+         * Adds a token, merging it into the previous token if both are code
+         *
+         * @param type the type of the token
+         * @param start the start index of the token
+         */
+        void add(SqlTokenType type, int start) {
+            if (type == SqlTokenType.CODE && this.size > 0 && this.types[this.size - 1] == type.ordinal()) return;
+            if (this.size == this.types.length) {
+                this.types = Arrays.copyOf(this.types, this.size * 2);
+                this.starts = Arrays.copyOf(this.starts, this.size * 2);
+            }
+            this.types[this.size] = (byte) type.ordinal();
+            this.starts[this.size++] = start;
+        }
+
+        SqlTokens build() {
+            return new SqlTokens(this.source, this.types, this.starts, this.size);
+        }
+    }
+}
@@ -24,32 +24,75 @@
 
 package me.lynxplay.idonis.core.dialect.promise.parser;
 
+import me.lynxplay.idonis.core.dialect.promise.ParameterTable;
 import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.dialect.SQLDialect;
 import me.lynxplay.idonis.dialect.promise.StatementPromise;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Function;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
  * Represents a very basic statement parser
+ * <p>
+ * The script is split into tokens by a {@link SqlLexer} first. A block comment that starts the script, only preceded by
+ * whitespace, is its header and declares the variables, one {@code @name} per line. Other lines of the header, e.g. a
+ * description, are ignored and the header is removed from the SQL. A leading comment that declares no variable and all
+ * later comments, e.g. optimizer hints, are kept. Variables and {@code ?} are only replaced in plain code, never
+ * inside string literals, quoted identifiers or comments. Whitespace outside of literals is squashed into a single
+ * space and line comments are dropped, as they would otherwise swallow the rest of the now single line script.
+ * <p>
+ * A variable declared with a trailing {@code []}, e.g. {@code @ids[]}, is a list variable. It is used as {@code @ids}
+ * in the SQL and expanded into one {@code ?} per element by {@link ValidStatementPromise#expand(int...)}.
  */
 public class ValidStatementParser implements Function<String, StatementPromise> {
 
     /**
-     * The internal comment pattern to match the comment in which the variables are defined
+     * The version of the produced promises, which has to be increased whenever the parser produces different promises
+     * for the same script
      */
-    private static final Pattern COMMENT_PATTERN = Pattern.compile("(?s)/\\*(.*)\\*/");
+    private static final int VERSION = 6;
 
     /**
-     * Generates the {@link StatementPromise} instance based on the source string
+     * A single line of the header declaring a variable
+     */
+    private static final Pattern VARIABLE = Pattern.compile("@\\w+(\\[])?");
+
+    private final SqlLexer lexer;
+
+    /**
+     * Creates a new parser respecting the rules of standard SQL
+     */
+    public ValidStatementParser() {
+        this(SqlSyntax.ANSI);
+    }
+
+    /**
+     * Creates a new parser respecting the rules of the given dialect
+     *
+     * @param dialect the dialect of the parsed scripts
+     */
+    public ValidStatementParser(SQLDialect dialect) {
+        this(SqlSyntax.of(dialect));
+    }
+
+    /**
+     * Creates a new parser respecting the given rules
+     *
+     * @param syntax the rules of the parsed scripts
+     */
+    public ValidStatementParser(SqlSyntax syntax) {
+        this.lexer = new SqlLexer(syntax);
+    }
+
+    /**
+     * Generates the {@link StatementPromise} instance based on the source string. All declared variables and {@code ?}
+     * are found in a single pass over the code tokens by a {@link MultiPatternMatcher}, which writes the rewritten SQL
+     * and the index table at the same time.
      *
      * @param source the string used as a source
      *
@@ -57,62 +100,123 @@ public class ValidStatementParser implements Function<String, StatementPromise>
      */
     @Override
     public StatementPromise apply(String source) {
-        Matcher matcher = COMMENT_PATTERN.matcher(source);
-        Map<Integer, List<Integer>> fakeIndexMap = new HashMap<>();
-
-        if (matcher.find()) {
-            String group = matcher.group(1);
-            source = matcher.replaceAll(""); // Remove comment from actual SQL script
-
-            StringBuilder buffer = new StringBuilder(source);
-
-            List<CachedStringIndexer> indexers = Arrays.stream(group.split(System.lineSeparator()))
-                    .filter(s -> !s.isBlank())
-                    .map(t -> new CachedStringIndexer(buffer, t))
-                    .collect(Collectors.toList());
-            CachedStringIndexer normalParameter = new CachedStringIndexer(buffer, "?");
-
-            int fakeIndex = indexers.size();
-            int subIndex = 0;
-
-            List<Integer> actualToFake = new ArrayList<>();
-
-            while (true) {
-                Map.Entry<Integer, CachedStringIndexer> found = Map.entry(normalParameter.find(subIndex), normalParameter);
-                int nextFakeIndex = fakeIndex;
-                for (int i = 0; i < indexers.size(); i++) {
-                    CachedStringIndexer indexer = indexers.get(i);
-                    if (indexer.find(subIndex) >= 0 && (indexer.find(subIndex) < found.getKey() || found.getKey() < 0)) {
-                        found = Map.entry(indexer.find(subIndex), indexer);
-                        nextFakeIndex = i;
-                    }
-                }
-
-                if (found.getKey() < 0) break;
-                if (found.getValue() == normalParameter) {
-                    // Increase fake index by one as we found a ?
-                    nextFakeIndex = fakeIndex++;
-                } else {
-                    // Replace the found variable with the ?
-                    int targetLength = found.getValue().getTarget().length();
-                    buffer.replace(found.getKey(), found.getKey() + targetLength, "?"); // Replace the found key in the cache
-                    indexers.forEach(i -> i.adjustCache(-targetLength + 1)); // Adjust all caches
-                    normalParameter.adjustCache(-targetLength + 1); // Adjust ? indexer
-                }
-
-                actualToFake.add(nextFakeIndex);
-                subIndex = found.getKey() + 1; // Skip to after variable as we just replaced it with a ?
+        SqlTokens tokens = this.lexer.tokenize(source);
+        int declaration = -1;
+        List<String> declared = List.of();
+        int first = 0;
+        while (first < tokens.size() && tokens.type(first) == SqlTokenType.WHITESPACE) first++;
+        if (first < tokens.size() && tokens.type(first) == SqlTokenType.BLOCK_COMMENT) {
+            String comment = source.substring(tokens.start(first) + 2, Math.max(tokens.start(first) + 2, tokens.end(first) - 2));
+            declared = comment.lines().map(String::strip).filter(s -> VARIABLE.matcher(s).matches()).collect(Collectors.toList());
+            if (!declared.isEmpty()) declaration = first;
+        }
+        int variables = declared.size();
+
+        // List variables are declared as @ids[] but used as @ids
+        List<String> patterns = new ArrayList<>(variables + 1);
+        for (String variable : declared) patterns.add(variable.endsWith("[]") ? variable.substring(0, variable.length() - 2) : variable);
+        patterns.add("?"); // Plain parameters are found by the same pass, they are indexed after all variables
+
+        MultiPatternMatcher matcher = new MultiPatternMatcher(patterns);
+        Rewriter rewriter = new Rewriter(source, variables);
+        for (int i = 0; i < tokens.size(); i++) {
+            switch (tokens.type(i)) {
+                case WHITESPACE:
+                case LINE_COMMENT:
+                    rewriter.space();
+                    break;
+                case BLOCK_COMMENT:
+                    if (i != declaration) rewriter.copy(tokens.start(i), tokens.end(i)); // Keep optimizer hints
+                    break;
+                case CODE:
+                    rewriter.code(matcher, tokens.start(i), tokens.end(i));
+                    break;
+                default:
+                    rewriter.copy(tokens.start(i), tokens.end(i));
             }
+        }
+        return new ValidStatementPromise(
+                rewriter.sql.toString(), ParameterTable.of(rewriter.declaredIndices, rewriter.parameters), declared,
+                Arrays.copyOf(rewriter.positions, rewriter.parameters)
+        );
+    }
 
-            for (int i = 0; i < actualToFake.size(); i++) {
-                // Add one to all indices as SQL starts at 1
-                fakeIndexMap.computeIfAbsent(actualToFake.get(i) + 1, $ -> new LinkedList<>()).add(i + 1);
-            }
+    /**
+     * Returns an id of this parser that changes whenever it produces different promises for the same script
+     *
+     * @return the parser id
+     */
+    public String id() {
+        return String.format("%s/%d/%s", ValidStatementParser.class.getName(), VERSION, this.lexer.syntax());
+    }
+
+    /**
+     * Writes the SQL while the tokens are consumed, replacing every match with a {@code ?} and recording the index the
+     * match was declared at
+     */
+    private static final class Rewriter implements MultiPatternMatcher.MatchListener {
+
+        private final String source;
+        private final int variables;
+        private final StringBuilder sql;
+        private int[] declaredIndices = new int[16];
+        private int[] positions = new int[16];
+        private int written;
+        private int parameters;
+        private int nextPlainIndex;
+
+        private Rewriter(String source, int variables) {
+            this.source = source;
+            this.variables = variables;
+            this.sql = new StringBuilder(source.length());
+            this.nextPlainIndex = variables;
+        }
+
+        /**
+         * Appends a single space, unless the SQL already ends with one
+         */
+        private void space() {
+            if (this.sql.length() == 0 || this.sql.charAt(this.sql.length() - 1) != ' ') this.sql.append(' ');
+        }
 
-            source = buffer.toString();
+        /**
+         * Appends the range of the source untouched
+         *
+         * @param from the first index, inclusive
+         * @param to the last index, exclusive
+         */
+        private void copy(int from, int to) {
+            this.sql.append(this.source, from, to);
         }
 
-        String trimmed = source.replaceAll(System.lineSeparator(), " ").replaceAll(" +", " ");
-        return new ValidStatementPromise(trimmed, fakeIndexMap);
+        /**
+         * Appends the range of the source, replacing all matches of the matcher
+         *
+         * @param matcher the matcher finding the variables and parameters
+         * @param from the first index, inclusive
+         * @param to the last index, exclusive
+         */
+        private void code(MultiPatternMatcher matcher, int from, int to) {
+            this.written = from;
+            matcher.match(this.source, from, to, this);
+            this.copy(this.written, to);
+        }
+
+        @Override
+        public void onMatch(int pattern, int start, int end) {
+            this.copy(this.written, start);
+            int position = this.sql.length();
+            this.sql.append('?');
+            this.written = end;
+
+            // Add one to all indices as SQL starts at 1
+            int declaredIndex = pattern < this.variables ? pattern : this.nextPlainIndex++;
+            if (this.parameters == this.declaredIndices.length) {
+                this.declaredIndices = Arrays.copyOf(this.declaredIndices, this.parameters * 2);
+                this.positions = Arrays.copyOf(this.positions, this.parameters * 2);
+            }
+            this.positions[this.parameters] = position;
+            this.declaredIndices[this.parameters++] = declaredIndex + 1;
+        }
     }
 }
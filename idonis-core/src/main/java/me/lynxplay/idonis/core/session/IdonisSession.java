@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.session;
+
+import me.lynxplay.idonis.core.dialect.CacheStatistics;
+import me.lynxplay.idonis.core.dialect.promise.NamedStatement;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A session on a single connection which keeps the statements prepared from a promise open, so preparing the same
+ * promise again reuses the statement instead of letting the driver parse and plan the SQL once more.
+ * <p>
+ * Statements are handed out as {@link SessionStatement}s, a new lease for every call. Closing a lease clears the
+ * parameters and batch of its statement and returns it to the session, the next {@link #prepare(StatementPromise)} of
+ * the same promise hands it out again in a new lease. If the
+ * statement of a promise is still in use, an additional uncached statement is prepared. The session keeps at most the
+ * given amount of statements and closes the least recently used one once it exceeds that size. Statements that are in
+ * use are never evicted.
+ * <p>
+ * Just like the connection it wraps, a session must not be used by several threads at once. Closing the session closes
+ * all of its statements, but not the connection.
+ */
+public final class IdonisSession implements AutoCloseable {
+
+    private final Connection connection;
+    private final int maximumSize;
+    private final LinkedHashMap<StatementPromise, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private boolean closed;
+
+    /**
+     * Creates a new session on the connection
+     *
+     * @param connection the connection to prepare the statements on
+     * @param maximumSize the maximum amount of statements the session keeps open
+     *
+     * @throws IllegalArgumentException if the maximum size is negative
+     */
+    public IdonisSession(Connection connection, int maximumSize) {
+        if (maximumSize < 0) throw new IllegalArgumentException("The maximum size must not be negative");
+        this.connection = connection;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns a new lease of the statement of the promise, reusing the cached statement if it is not in use. Closing the
+     * returned lease returns the statement to the session.
+     *
+     * @param promise the promise to prepare
+     *
+     * @return the statement
+     *
+     * @throws SQLException if the session is closed or the promise could not be prepared
+     */
+    public PreparedStatement prepare(StatementPromise promise) throws SQLException {
+        if (this.closed) throw new SQLException("The session is closed");
+
+        CachedStatement cached = this.statements.get(promise);
+        if (cached != null && cached.statement.isClosed()) {
+            this.statements.remove(promise); // Closed by the driver, e.g. through closeOnCompletion
+            cached = null;
+        }
+
+        if (cached != null && !cached.leased) {
+            this.hits++;
+            cached.leased = true;
+            return new SessionStatement(this, cached, cached.statement);
+        }
+
+        this.misses++;
+        PreparedStatement prepared = promise.prepare(this.connection);
+        if (cached != null) return new SessionStatement(this, null, prepared); // The cached one is still in use
+
+        CachedStatement statement = new CachedStatement(promise, prepared);
+        this.statements.put(promise, statement);
+        this.evict();
+        return new SessionStatement(this, statement, prepared);
+    }
+
+    /**
+     * Returns the statement of the promise wrapped into a {@link NamedStatement}, see {@link #prepare(StatementPromise)}
+     *
+     * @param promise the promise to prepare
+     *
+     * @return the named statement
+     *
+     * @throws SQLException if the session is closed or the promise could not be prepared
+     */
+    public NamedStatement prepareNamed(ValidStatementPromise promise) throws SQLException {
+        return new NamedStatement(this.prepare(promise), promise.getVariableNames());
+    }
+
+    /**
+     * Closes the least recently used statements that are not in use until the session respects its maximum size
+     *
+     * @throws SQLException if an evicted statement could not be closed
+     */
+    private void evict() throws SQLException {
+        Iterator<CachedStatement> iterator = this.statements.values().iterator();
+        while (this.statements.size() > this.maximumSize && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            if (eldest.leased) continue;
+
+            iterator.remove();
+            this.evictions++;
+            eldest.statement.close();
+        }
+    }
+
+    /**
+     * Takes back the statement of a lease the user closed. Cached statements are cleared and kept open, all others are
+     * closed.
+     *
+     * @param lease the closed lease
+     *
+     * @throws SQLException if the statement could not be cleared or closed
+     */
+    void release(SessionStatement lease) throws SQLException {
+        PreparedStatement wrapped = lease.getWrapped();
+        CachedStatement cached = lease.getCached();
+        if (this.closed || cached == null || this.statements.get(cached.promise) != cached) {
+            wrapped.close();
+            return;
+        }
+
+        try {
+            wrapped.clearParameters();
+            wrapped.clearBatch();
+        } catch (SQLException e) {
+            this.statements.remove(cached.promise);
+            wrapped.close();
+            throw e;
+        }
+        cached.leased = false;
+        this.evict(); // Statements in use may have held the session above its size
+    }
+
+    /**
+     * Returns the connection of this session
+     *
+     * @return the connection
+     */
+    public Connection getConnection() {
+        return this.connection;
+    }
+
+    /**
+     * Returns the amount of statements this session currently keeps open
+     *
+     * @return the amount of cached statements
+     */
+    public int size() {
+        return this.statements.size();
+    }
+
+    /**
+     * Returns the maximum amount of statements this session keeps open
+     *
+     * @return the maximum size
+     */
+    public int maximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counters of this session. The weight of the snapshot is the
+     * amount of cached statements.
+     *
+     * @return the statistics snapshot
+     */
+    public CacheStatistics statistics() {
+        return new CacheStatistics(this.hits, this.misses, this.evictions, this.statements.size());
+    }
+
+    /**
+     * Returns if this session was closed
+     *
+     * @return if the session is closed
+     */
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Closes all statements of this session, including the ones still in use. The connection stays open.
+     *
+     * @throws SQLException if one of the statements could not be closed, after trying to close all of them
+     */
+    @Override
+    public void close() throws SQLException {
+        if (this.closed) return;
+        this.closed = true;
+
+        List<CachedStatement> open = new ArrayList<>(this.statements.values());
+        this.statements.clear();
+
+        SQLException failure = null;
+        for (CachedStatement statement : open) {
+            try {
+                statement.statement.close();
+            } catch (SQLException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IdonisSession{size: %d, maximumSize: %d, %s}", this.statements.size(), this.maximumSize, this.statistics());
+    }
+
+    /**
+     * A statement kept open by the session, which is handed out to at most one lease at a time
+     */
+    static final class CachedStatement {
+
+        private final StatementPromise promise;
+        private final PreparedStatement statement;
+        private boolean leased = true;
+
+        private CachedStatement(StatementPromise promise, PreparedStatement statement) {
+            this.promise = promise;
+            this.statement = statement;
+        }
+    }
+}
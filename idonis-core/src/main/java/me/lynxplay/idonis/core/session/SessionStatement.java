@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.session;
+
+import me.lynxplay.idonis.core.dialect.promise.DelegatingPreparedStatement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A single lease of a statement handed out by an {@link IdonisSession}. Closing it returns the statement to the session
+ * instead of closing the statement of the driver. Every {@link IdonisSession#prepare prepare} creates a new lease, so a
+ * lease that was closed once can never return the statement again while another caller uses it.
+ */
+public final class SessionStatement extends DelegatingPreparedStatement {
+
+    private final IdonisSession session;
+    private final IdonisSession.CachedStatement cached;
+    private boolean open = true;
+
+    /**
+     * Creates a new lease, which is open until it is closed
+     *
+     * @param session the session the statement belongs to
+     * @param cached the cached statement this lease uses or null if the statement is not cached
+     * @param preparedStatement the prepared statement
+     */
+    SessionStatement(IdonisSession session, IdonisSession.CachedStatement cached, PreparedStatement preparedStatement) {
+        super(preparedStatement);
+        this.session = session;
+        this.cached = cached;
+    }
+
+    /**
+     * Returns the cached statement this lease uses
+     *
+     * @return the cached statement or null if the statement is not cached
+     */
+    IdonisSession.CachedStatement getCached() {
+        return this.cached;
+    }
+
+    @Override
+    public boolean isTransparent() {
+        return true;
+    }
+
+    /**
+     * Returns the statement to its session. Closing a lease that was already closed does nothing, even if the
+     * statement was handed out again in the meantime.
+     *
+     * @throws SQLException if the statement could not be cleared or closed
+     */
+    @Override
+    public void close() throws SQLException {
+        if (!this.open) return;
+        this.open = false;
+        this.session.release(this);
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return !this.open || preparedStatement.isClosed();
+    }
+}
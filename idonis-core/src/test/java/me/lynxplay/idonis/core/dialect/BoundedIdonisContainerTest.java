@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.Idonis;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedIdonisContainerTest {
+
+    private static final Path ROOT = Path.of("src/test/resources/sql-scripts/sqlite");
+
+    private Idonis idonis = new IdonisCore();
+
+    @Test
+    public void testHitAndMissCounters() {
+        BoundedIdonisContainer container = new BoundedIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser(), 10);
+        assertSame(container.using("insertTest.sql"), container.using("insertTest.sql"));
+        container.using("insertData.sql");
+
+        CacheStatistics statistics = container.statistics();
+        assertEquals(1, statistics.hitCount());
+        assertEquals(2, statistics.missCount());
+        assertEquals(0, statistics.evictionCount());
+        assertEquals(2, statistics.weight());
+    }
+
+    @Test
+    public void testSizeBound() {
+        BoundedIdonisContainer container = new BoundedIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser(), 2);
+        for (int i = 0; i < 100; i++) {
+            container.using("probe-" + i + ".sql");
+        }
+
+        CacheStatistics statistics = container.statistics();
+        assertEquals(98, statistics.evictionCount());
+        assertEquals(2, statistics.weight());
+    }
+
+    @Test
+    public void testReferencedEntryGetsSecondChance() {
+        BoundedIdonisContainer container = new BoundedIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser(), 2);
+        container.using("a.sql");
+        container.using("b.sql");
+        container.using("a.sql"); // Reference a, so b is the next victim
+        container.using("c.sql");
+
+        long misses = container.statistics().missCount();
+        container.using("a.sql");
+        assertEquals("a should have survived the eviction", misses, container.statistics().missCount());
+        container.using("b.sql");
+        assertEquals("b should have been evicted", misses + 1, container.statistics().missCount());
+    }
+
+    @Test
+    public void testSqlLengthWeight() {
+        BoundedIdonisContainer container = new BoundedIdonisContainer(ROOT, idonis::simpleStringPath, Files::readString,
+                new ValidStatementParser(), 10, StatementWeigher.sqlLength());
+
+        assertTrue(container.using("insertTest.sql").isPresent());
+        CacheStatistics statistics = container.statistics();
+        assertEquals("The script is heavier than the whole container", 1, statistics.evictionCount());
+        assertEquals(0, statistics.weight());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.Idonis;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.bundle.ScriptBundle;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BundleIdonisContainerTest {
+
+    private static final Path ROOT = Path.of("src/test/resources/sql-scripts/sqlite");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Idonis idonis = new IdonisCore();
+
+    @Test
+    public void testPackedScriptsMatchParsedScripts() throws IOException {
+        Path bundleFile = this.folder.getRoot().toPath().resolve("sqlite.bundle");
+        ScriptBundle.pack(ROOT, bundleFile, Files::readString, new ValidStatementParser());
+
+        BundleIdonisContainer container = new BundleIdonisContainer(ROOT, idonis::simpleStringPath, ScriptBundle.open(bundleFile));
+        assertEquals(2, container.bundle().size());
+
+        ValidStatementParser parser = new ValidStatementParser();
+        for (String script : List.of("insertTest.sql", "insertData.sql")) {
+            ValidStatementPromise parsed = (ValidStatementPromise) parser.apply(Files.readString(ROOT.resolve(script)));
+            ValidStatementPromise bundled = (ValidStatementPromise) container.using(script);
+            assertEquals(parsed.getRawContent(), bundled.getRawContent());
+            assertEquals(parsed.getReplacement(), bundled.getReplacement());
+        }
+
+        StatementPromise promise = container.using("insertTest.sql");
+        assertSame(promise, container.using("insertTest.sql"));
+        assertFalse(container.using("missing.sql").isPresent());
+    }
+
+    @Test
+    public void testManyEntries() throws IOException {
+        Map<String, ValidStatementPromise> entries = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            entries.put("nested/script-" + i + ".sql", new ValidStatementPromise("SELECT " + i + " WHERE a = ?", Map.of(1, List.of(1))));
+        }
+
+        Path bundleFile = this.folder.getRoot().toPath().resolve("many.bundle");
+        ScriptBundle.write(bundleFile, entries);
+        ScriptBundle bundle = ScriptBundle.open(bundleFile);
+
+        assertEquals(entries.size(), bundle.size());
+        assertEquals(entries.keySet(), Set.copyOf(bundle.names()));
+        entries.forEach((name, promise) -> {
+            ValidStatementPromise decoded = bundle.get(name);
+            assertEquals(promise.getRawContent(), decoded.getRawContent());
+            assertEquals(promise.getReplacement(), decoded.getReplacement());
+        });
+        assertNull(bundle.get("nested/script-5000.sql"));
+
+        BundleIdonisContainer container = new BundleIdonisContainer(Path.of("sql"), idonis::simpleStringPath, bundle);
+        assertTrue(container.using("nested/script-42.sql").isPresent());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidBundle() throws IOException {
+        Path bundleFile = Files.writeString(this.folder.getRoot().toPath().resolve("invalid.bundle"), "SELECT 1;");
+        ScriptBundle.open(bundleFile);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.Idonis;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConcurrentIdonisContainerTest {
+
+    private static final Path ROOT = Path.of("src/test/resources/sql-scripts/sqlite");
+    private static final int THREADS = 8;
+
+    private Idonis idonis = new IdonisCore();
+
+    @Test
+    public void testExistingFileState() {
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser());
+        assertTrue(container.using("insertTest.sql").isPresent());
+        assertFalse(container.using("updateScript.sql").isPresent());
+    }
+
+    @Test
+    public void testCachedInstance() {
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser());
+        assertSame(container.using("insertTest.sql"), container.using("insertTest.sql"));
+    }
+
+    @Test
+    public void testWarmStringLookupSkipsKeyGeneration() {
+        AtomicInteger generated = new AtomicInteger();
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, p -> {
+            generated.incrementAndGet();
+            return idonis.simpleStringPath(p);
+        }, new ValidStatementParser());
+
+        StatementPromise promise = container.using("insertTest.sql");
+        assertSame(promise, container.using("insertTest.sql"));
+        assertEquals(1, generated.get());
+
+        container.using("updateScript.sql");
+        container.using("updateScript.sql");
+        assertEquals("Missing scripts should not be indexed", 3, generated.get());
+    }
+
+    @Test
+    public void testConcurrentColdLoadReadsOnce() throws InterruptedException, ExecutionException {
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, p -> {
+            reads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS); // Keep the first loader busy until all threads queued up
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Files.readString(p);
+        }, new ValidStatementParser());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch started = new CountDownLatch(THREADS);
+        List<Future<StatementPromise>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return container.using("insertTest.sql");
+            }));
+        }
+
+        started.await();
+        Thread.sleep(50);
+        release.countDown();
+
+        StatementPromise first = results.get(0).get();
+        for (Future<StatementPromise> result : results) {
+            assertSame(first, result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testAsyncLookup() {
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser());
+        StatementPromise promise = container.usingAsync("insertTest.sql").join();
+        assertTrue(promise.isPresent());
+        assertSame(promise, container.using("insertTest.sql"));
+        assertTrue(container.usingAsync("insertTest.sql").isDone());
+        assertFalse(container.usingAsync("updateScript.sql").join().isPresent());
+    }
+
+    @Test
+    public void testConcurrentAsyncLookupsShareLoad() throws InterruptedException, ExecutionException {
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, p -> {
+            reads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS); // Keep the load in flight until all lookups were issued
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Files.readString(p);
+        }, new ValidStatementParser());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<CompletableFuture<StatementPromise>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(container.usingAsync("insertTest.sql", executor));
+        }
+        Future<StatementPromise> blocking = executor.submit(() -> container.using("insertTest.sql"));
+
+        results.get(0).cancel(false); // Cancelling one lookup must not cancel the shared load
+        release.countDown();
+
+        StatementPromise promise = blocking.get();
+        for (CompletableFuture<StatementPromise> result : results.subList(1, results.size())) {
+            assertSame(promise, result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testAsyncLookupFailure() {
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, p -> {
+            throw new IOException("This container is error injected and cannot read files");
+        }, new ValidStatementParser());
+
+        try {
+            container.usingAsync("insertTest.sql").join();
+            fail("The lookup should have failed");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readNonReadableFile() {
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, p -> {
+            throw new IOException("This container is error injected and cannot read files");
+        }, new ValidStatementParser());
+        container.using("insertTest.sql");
+    }
+}
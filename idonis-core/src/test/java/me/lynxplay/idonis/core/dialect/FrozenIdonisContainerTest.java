@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.Idonis;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.promise.EmptyStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.StatementKey;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FrozenIdonisContainerTest {
+
+    private static final Path ROOT = Path.of("src/test/resources/sql-scripts/sqlite");
+
+    private Idonis idonis = new IdonisCore();
+
+    @Test
+    public void testFreezeWarmedContainer() {
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser());
+        StatementPromise insertTest = container.using("insertTest.sql");
+        StatementPromise insertData = container.using("insertData.sql");
+
+        FrozenIdonisContainer frozen = container.freeze();
+        assertEquals(2, frozen.size());
+        assertSame(insertTest, frozen.using("insertTest.sql"));
+        assertSame(insertData, frozen.using("insertData.sql"));
+        assertEquals(ROOT, frozen.path());
+    }
+
+    @Test
+    public void testFrozenStringKeys() {
+        AtomicInteger generated = new AtomicInteger();
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, p -> {
+            generated.incrementAndGet();
+            return idonis.simpleStringPath(p);
+        }, new ValidStatementParser());
+        StatementPromise insertTest = container.using("insertTest.sql");
+
+        FrozenIdonisContainer frozen = container.freeze();
+        assertSame(insertTest, frozen.using("insertTest.sql"));
+        assertEquals(1, generated.get());
+    }
+
+    @Test
+    public void testAsyncLookupIsCompleted() {
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser());
+        StatementPromise insertTest = container.using("insertTest.sql");
+
+        FrozenIdonisContainer frozen = container.freeze();
+        assertTrue(frozen.usingAsync("insertTest.sql").isDone());
+        assertSame(insertTest, frozen.usingAsync("insertTest.sql").join());
+    }
+
+    @Test
+    public void testUnknownKey() {
+        FrozenIdonisContainer frozen = new FrozenIdonisContainer(ROOT, idonis::simpleStringPath, Map.of());
+        assertFalse(frozen.using("insertTest.sql").isPresent());
+    }
+
+    @Test
+    public void testManyKeys() {
+        Map<StatementKey, StatementPromise> entries = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            entries.put(idonis.simpleStringPath(Path.of("script-" + i + ".sql")), new EmptyStatementPromise(Path.of("script-" + i)));
+        }
+
+        FrozenIdonisContainer frozen = new FrozenIdonisContainer(ROOT, idonis::simpleStringPath, entries);
+        entries.forEach((key, promise) -> assertSame(promise, frozen.using(key)));
+        assertFalse(frozen.using("script-10000.sql").isPresent());
+    }
+
+    @Test
+    public void testCollidingHashCodes() {
+        Map<StatementKey, StatementPromise> entries = new HashMap<>();
+        for (int i = 0; i < 16; i++) {
+            entries.put(new CollidingKey(i), new EmptyStatementPromise(Path.of("script-" + i)));
+        }
+
+        FrozenIdonisContainer frozen = new FrozenIdonisContainer(ROOT, idonis::simpleStringPath, entries);
+        entries.forEach((key, promise) -> assertSame(promise, frozen.using(key)));
+        assertFalse(frozen.using(new CollidingKey(16)).isPresent());
+    }
+
+    /**
+     * A key whose hash code always collides with all other keys of its type
+     */
+    private static final class CollidingKey implements StatementKey {
+
+        private final int id;
+
+        private CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public Path resolveFile(Path dialectFolder) {
+            return dialectFolder.resolve("colliding-" + this.id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey) obj).id == this.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.Idonis;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class PreloadingIdonisContainerTest {
+
+    private static final Path ROOT = Path.of("src/test/resources/sql-scripts/sqlite");
+
+    private Idonis idonis = new IdonisCore();
+
+    @Test
+    public void testPreloadReadsAllScripts() {
+        AtomicInteger reads = new AtomicInteger();
+        AtomicInteger tasks = new AtomicInteger();
+        PreloadingIdonisContainer container = new PreloadingIdonisContainer(ROOT, idonis::simpleStringPath, p -> {
+            reads.incrementAndGet();
+            return Files.readString(p);
+        }, new ValidStatementParser(), r -> {
+            tasks.incrementAndGet();
+            r.run();
+        });
+
+        assertEquals(2, container.preloadedScripts());
+        assertEquals(2, reads.get());
+        assertEquals(2, tasks.get());
+        assertNotNull(container.preloadDuration());
+
+        assertTrue(container.using("insertTest.sql").isPresent());
+        assertTrue(container.using("insertData.sql").isPresent());
+        assertEquals("Preloaded scripts should not be read again", 2, reads.get());
+    }
+
+    @Test
+    public void testMissingScriptsStillLoadLazily() {
+        PreloadingIdonisContainer container = new PreloadingIdonisContainer(ROOT, idonis::simpleStringPath, new ValidStatementParser());
+        assertFalse(container.using("updateScript.sql").isPresent());
+    }
+
+    @Test
+    public void testMissingRoot() {
+        PreloadingIdonisContainer container = new PreloadingIdonisContainer(Path.of("src/test/resources/not-existing"),
+                idonis::simpleStringPath, new ValidStatementParser());
+        assertEquals(0, container.preloadedScripts());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readNonReadableFile() {
+        new PreloadingIdonisContainer(ROOT, idonis::simpleStringPath, p -> {
+            throw new IOException("This container is error injected and cannot read files");
+        }, new ValidStatementParser(), Runnable::run);
+    }
+}
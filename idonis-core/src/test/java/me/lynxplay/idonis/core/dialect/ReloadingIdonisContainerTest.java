@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect;
+
+import me.lynxplay.idonis.Idonis;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReloadingIdonisContainerTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Idonis idonis = new IdonisCore();
+
+    @Test
+    public void testModifiedScriptIsSwapped() throws IOException, InterruptedException {
+        Path root = this.folder.getRoot().toPath();
+        Path script = Files.writeString(root.resolve("select.sql"), "SELECT 1;");
+
+        try (ReloadingIdonisContainer container = new ReloadingIdonisContainer(root, idonis::simpleStringPath, new ValidStatementParser())) {
+            assertEquals("SELECT 1;", sql(container.using("select.sql")));
+
+            Files.writeString(script, "SELECT 2;");
+            awaitPromise(container, "select.sql", p -> p.isPresent() && "SELECT 2;".equals(sql(p)));
+        }
+    }
+
+    @Test
+    public void testDeletedScriptIsEmpty() throws IOException, InterruptedException {
+        Path root = this.folder.getRoot().toPath();
+        Path script = Files.writeString(root.resolve("select.sql"), "SELECT 1;");
+
+        try (ReloadingIdonisContainer container = new ReloadingIdonisContainer(root, idonis::simpleStringPath, new ValidStatementParser())) {
+            assertTrue(container.using("select.sql").isPresent());
+
+            Files.delete(script);
+            awaitPromise(container, "select.sql", p -> !p.isPresent());
+        }
+    }
+
+    @Test
+    public void testCreatedScriptIsLoaded() throws IOException, InterruptedException {
+        Path root = this.folder.getRoot().toPath();
+
+        try (ReloadingIdonisContainer container = new ReloadingIdonisContainer(root, idonis::simpleStringPath, new ValidStatementParser())) {
+            assertFalse(container.using("select.sql").isPresent());
+
+            Files.writeString(root.resolve("select.sql"), "SELECT 1;");
+            awaitPromise(container, "select.sql", StatementPromise::isPresent);
+        }
+    }
+
+    private static String sql(StatementPromise promise) {
+        return ((ValidStatementPromise) promise).getRawContent();
+    }
+
+    private static void awaitPromise(ReloadingIdonisContainer container, String key, Predicate<StatementPromise> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.test(container.using(key))) return;
+            Thread.sleep(20);
+        }
+        fail(String.format("The promise of %s was not reloaded in time", key));
+    }
+}
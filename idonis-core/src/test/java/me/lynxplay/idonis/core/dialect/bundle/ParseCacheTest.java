@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.bundle;
+
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.promise.StatementPromise;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParseCacheTest {
+
+    private static final String SELECT = String.join(System.lineSeparator(), "/*", "@id", "*/", "SELECT * FROM test WHERE id = @id;");
+    private static final String DELETE = String.join(System.lineSeparator(), "/*", "@id", "*/", "DELETE FROM test WHERE id = @id;");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger parsed = new AtomicInteger();
+    private final Function<String, StatementPromise> parser = s -> {
+        this.parsed.incrementAndGet();
+        return new ValidStatementParser().apply(s);
+    };
+
+    @Test
+    public void testUnchangedScriptsSkipParsing() throws IOException {
+        Path file = this.folder.getRoot().toPath().resolve("parse.cache");
+        try (ParseCache cache = ParseCache.open(file, "test", this.parser)) {
+            cache.apply(SELECT);
+            cache.apply(SELECT);
+            assertEquals(1, this.parsed.get());
+        }
+
+        try (ParseCache cache = ParseCache.open(file, "test", this.parser)) {
+            ValidStatementPromise promise = (ValidStatementPromise) cache.apply(SELECT);
+            assertEquals(1, this.parsed.get());
+            assertEquals(1, cache.hits());
+            assertEquals(((ValidStatementPromise) new ValidStatementParser().apply(SELECT)).getRawContent(), promise.getRawContent());
+
+            cache.apply(DELETE);
+            assertEquals(2, this.parsed.get());
+            assertEquals(1, cache.misses());
+        }
+
+        try (ParseCache cache = ParseCache.open(file, "test", this.parser)) {
+            cache.apply(SELECT);
+            cache.apply(DELETE);
+            assertEquals(2, this.parsed.get());
+        }
+    }
+
+    @Test
+    public void testChangedParserId() throws IOException {
+        Path file = this.folder.getRoot().toPath().resolve("parse.cache");
+        try (ParseCache cache = ParseCache.open(file, "v1", this.parser)) {
+            cache.apply(SELECT);
+        }
+
+        try (ParseCache cache = ParseCache.open(file, "v2", this.parser)) {
+            cache.apply(SELECT);
+            assertEquals(2, this.parsed.get());
+        }
+    }
+
+    @Test
+    public void testSaveDropsUnusedEntries() throws IOException {
+        Path file = this.folder.getRoot().toPath().resolve("parse.cache");
+        try (ParseCache cache = ParseCache.open(file, "test", this.parser)) {
+            cache.apply(SELECT);
+            cache.apply(DELETE);
+        }
+        assertEquals(2, ScriptBundle.read(file).size());
+
+        try (ParseCache cache = ParseCache.open(file, "test", this.parser)) {
+            cache.apply(SELECT);
+            assertEquals(0, cache.misses());
+        }
+        assertEquals(1, ScriptBundle.read(file).size());
+
+        try (ParseCache cache = ParseCache.open(file, "test", this.parser)) {
+            assertEquals(0, cache.hits());
+        }
+        assertEquals(1, ScriptBundle.read(file).size());
+    }
+
+    @Test
+    public void testCorruptCacheFile() throws IOException {
+        Path file = Files.writeString(this.folder.getRoot().toPath().resolve("parse.cache"), "corrupt");
+        try (ParseCache cache = ParseCache.open(file, "test", this.parser)) {
+            cache.apply(SELECT);
+            assertEquals(1, cache.misses());
+        }
+        assertEquals(1, ScriptBundle.read(file).size());
+    }
+}
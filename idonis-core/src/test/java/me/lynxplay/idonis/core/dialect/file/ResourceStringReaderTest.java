@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.file;
+
+import me.lynxplay.idonis.Idonis;
+import me.lynxplay.idonis.IdonisContainer;
+import me.lynxplay.idonis.core.IdonisCore;
+import me.lynxplay.idonis.core.dialect.ConcurrentIdonisContainer;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.SQLDialect;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResourceStringReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Idonis idonis = new IdonisCore();
+
+    @Test
+    public void testClassPathFolder() throws IOException {
+        ResourceStringReader reader = ResourceStringReader.open(getClass().getClassLoader(), "sql-scripts/sqlite");
+        assertEquals(2, reader.size());
+        assertTrue(reader.exists(Path.of("sql-scripts/sqlite/insertTest.sql")));
+        assertFalse(reader.exists(Path.of("sql-scripts/sqlite/missing.sql")));
+        assertEquals(Files.readString(Path.of("src/test/resources/sql-scripts/sqlite/insertTest.sql")), reader.read(Path.of("sql-scripts/sqlite/insertTest.sql")));
+        assertNull(reader.read(Path.of("sql-scripts/sqlite/missing.sql")));
+    }
+
+    @Test
+    public void testJarFile() throws IOException {
+        Path jar = this.folder.getRoot().toPath().resolve("scripts.jar");
+        try (JarOutputStream stream = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String directory : new String[]{"sql/", "sql/sqlite/", "sql/sqlite/nested/", "sql/mysql/"}) {
+                stream.putNextEntry(new JarEntry(directory)); // Build tools write directory entries the class loader looks up
+                stream.closeEntry();
+            }
+            write(stream, "sql/sqlite/select.sql", "SELECT 1;");
+            write(stream, "sql/sqlite/nested/select.sql", "SELECT 2;");
+            write(stream, "sql/mysql/select.sql", "SELECT 3;");
+        }
+
+        ResourceStringReader reader;
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            reader = ResourceStringReader.open(loader, "sql/sqlite");
+        }
+        Files.delete(jar); // The entries were read while indexing, the archive is no longer needed
+
+        assertEquals(2, reader.size());
+        assertEquals("SELECT 1;", reader.read(Path.of("sql/sqlite/select.sql")));
+        assertEquals("SELECT 2;", reader.read(Path.of("sql/sqlite/nested/select.sql")));
+        assertFalse(reader.exists(Path.of("sql/mysql/select.sql")));
+
+        ConcurrentIdonisContainer container = new ConcurrentIdonisContainer(Path.of("sql/sqlite"), idonis::simpleStringPath, reader, new ValidStatementParser());
+        assertTrue(container.using("select.sql").isPresent());
+        assertTrue(container.using("nested/select.sql").isPresent());
+        assertFalse(container.using("missing.sql").isPresent());
+    }
+
+    @Test
+    public void testForResources() {
+        IdonisContainer container = idonis.forResources(getClass().getClassLoader(), "sql-scripts", SQLDialect.SQLITE);
+        assertTrue(container.using("insertTest.sql").isPresent());
+        assertFalse(container.using("missing.sql").isPresent());
+    }
+
+    private static void write(JarOutputStream stream, String name, String content) throws IOException {
+        stream.putNextEntry(new JarEntry(name));
+        stream.write(content.getBytes(StandardCharsets.UTF_8));
+        stream.closeEntry();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BatchExecutorTest {
+
+    private static final String INSERT = "/*\n@data\n@id\n*/\nINSERT INTO test_table (id, data) VALUES (@id, @data);";
+
+    private Connection connection;
+    private ValidStatementPromise promise;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE test_table (id INTEGER PRIMARY KEY, data TEXT NOT NULL)");
+        }
+        this.promise = (ValidStatementPromise) new ValidStatementParser().apply(INSERT);
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testChunkedExecution() throws SQLException {
+        BatchResult result = this.promise.executeBatch(this.connection, IntStream.range(0, 2500).boxed(), (statement, id) -> {
+            statement.setString(1, "data-" + id);
+            statement.setInt(2, id);
+        }, 1000, false);
+
+        assertEquals(2500, result.rows());
+        assertEquals(3, result.batches());
+        assertEquals(2500, result.updateCount() + result.unknownCounts());
+        assertEquals(2500, this.count());
+    }
+
+    @Test
+    public void testExactMultipleAndEmpty() throws SQLException {
+        StatementBinder<Integer> binder = (statement, id) -> {
+            statement.setString(1, "data");
+            statement.setInt(2, id);
+        };
+        assertEquals(2, this.promise.executeBatch(this.connection, List.of(1, 2, 3, 4), binder, 2).batches());
+        assertEquals(0, this.promise.executeBatch(this.connection, List.<Integer>of(), binder, 2).batches());
+    }
+
+    @Test
+    public void testCommitPerBatchKeepsExecutedBatches() throws SQLException {
+        this.connection.setAutoCommit(false);
+        try {
+            // The row with id 25 has no data, which fails the third batch
+            this.promise.executeBatch(this.connection, IntStream.range(0, 30).boxed(), (statement, id) -> {
+                statement.setString(1, id == 25 ? null : "data");
+                statement.setInt(2, id);
+            }, 10, true);
+            fail("The third batch should have failed");
+        } catch (SQLException e) {
+            this.connection.rollback();
+        }
+        assertEquals(20, this.count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBatchSize() throws SQLException {
+        this.promise.executeBatch(this.connection, List.of(1), (statement, id) -> {
+        }, 0);
+    }
+
+    private int count() throws SQLException {
+        try (Statement statement = this.connection.createStatement(); ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM test_table")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.bundle.StatementCodec;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.SQLDialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ListExpansionTest {
+
+    private static final String SELECT = "/*\n@ids[]\n@data\n*/\nSELECT id FROM test_table WHERE id IN (@ids) AND data <> @data AND data <> '?' ORDER BY id";
+
+    private Connection connection;
+    private ValidStatementPromise promise;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE test_table (id INTEGER PRIMARY KEY, data TEXT NOT NULL)");
+            for (int i = 0; i < 20; i++) statement.execute("INSERT INTO test_table VALUES (" + i + ", 'data-" + i + "')");
+        }
+        this.promise = (ValidStatementPromise) new ValidStatementParser().apply(SELECT);
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testBuckets() {
+        assertEquals(1, ListExpansion.bucket(0));
+        assertEquals(1, ListExpansion.bucket(1));
+        assertEquals(2, ListExpansion.bucket(2));
+        assertEquals(4, ListExpansion.bucket(3));
+        assertEquals(8, ListExpansion.bucket(8));
+        assertEquals(16, ListExpansion.bucket(9));
+    }
+
+    @Test
+    public void testShape() {
+        ValidStatementPromise shape = this.promise.expand(3);
+        assertSame(shape, this.promise.expand(4));
+        assertEquals("SELECT id FROM test_table WHERE id IN (?, ?, ?, ?) AND data <> ? AND data <> '?' ORDER BY id", shape.getRawContent().strip());
+
+        // The declared indices of @data stay, the elements follow behind them
+        ParameterTable table = shape.getParameterTable();
+        assertEquals(List.of(5), shape.getReplacement().get(2));
+        assertEquals(List.of(1), shape.getReplacement().get(3));
+        assertEquals(List.of(4), shape.getReplacement().get(6));
+        assertEquals(table.start(1), table.end(1));
+        assertEquals(List.of("@ids[]", "@data"), shape.getVariables());
+    }
+
+    @Test
+    public void testPrepare() throws SQLException {
+        assertEquals(List.of(3, 5, 7), this.select(Set.of(3, 5, 7), "none"));
+        assertEquals(List.of(3, 7), this.select(List.of(3, 5, 7), "data-5"));
+        assertEquals(List.of(1), this.select(List.of(1), "none"));
+    }
+
+    @Test
+    public void testUnexpandedListIsScalar() throws SQLException {
+        try (PreparedStatement statement = this.promise.prepare(this.connection)) {
+            statement.setInt(1, 4);
+            statement.setString(2, "none");
+            assertEquals(List.of(4), this.ids(statement));
+        }
+    }
+
+    @Test
+    public void testRepeatedList() {
+        ValidStatementPromise promise = (ValidStatementPromise) new ValidStatementParser()
+                .apply("/*\n@a[]\n@b[]\n*/\nSELECT * FROM t WHERE a IN (@a) OR b IN (@b) OR c IN (@a)");
+        ValidStatementPromise shape = promise.expand(2, 1);
+        assertEquals("SELECT * FROM t WHERE a IN (?, ?) OR b IN (?) OR c IN (?, ?)", shape.getRawContent().strip());
+        assertEquals(List.of(1, 4), shape.getReplacement().get(3));
+        assertEquals(List.of(3), shape.getReplacement().get(5));
+    }
+
+    @Test
+    public void testDialectSpecificLiterals() {
+        // Lexed as ANSI the backslash would not escape the quote, which moves the end of the literal
+        ValidStatementPromise promise = (ValidStatementPromise) new ValidStatementParser(SQLDialect.MYSQL)
+                .apply("/*\n@ids[]\n*/\nSELECT * FROM t WHERE note = 'it\\'s ?' OR id IN (@ids)");
+        assertEquals("SELECT * FROM t WHERE note = 'it\\'s ?' OR id IN (?, ?)", promise.expand(2).getRawContent().strip());
+    }
+
+    @Test
+    public void testDecodedPromise() {
+        ValidStatementPromise decoded = StatementCodec.decode(ByteBuffer.wrap(StatementCodec.encode(this.promise)));
+        assertEquals(this.promise.expand(3).getRawContent(), decoded.expand(3).getRawContent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyList() throws SQLException {
+        this.select(List.of(), "none");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownPositions() {
+        new ValidStatementPromise(this.promise.getRawContent(), this.promise.getParameterTable(), this.promise.getVariables());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongListCount() {
+        this.promise.expand(1, 2);
+    }
+
+    private List<Integer> select(Collection<Integer> ids, String data) throws SQLException {
+        try (PreparedStatement statement = this.promise.prepare(this.connection, ids)) {
+            statement.setString(2, data);
+            return this.ids(statement);
+        }
+    }
+
+    private List<Integer> ids(PreparedStatement statement) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) ids.add(resultSet.getInt(1));
+        }
+        return ids;
+    }
+}
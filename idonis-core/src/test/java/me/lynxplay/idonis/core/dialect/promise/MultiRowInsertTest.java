@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import me.lynxplay.idonis.dialect.SQLDialect;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MultiRowInsertTest {
+
+    private static final String INSERT = "/*\n@data\n@id\n*/\nINSERT INTO test_table (id, data, copy) VALUES (@id, @data, @data);";
+
+    private Connection connection;
+    private MultiRowInsert insert;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE test_table (id INTEGER PRIMARY KEY, data TEXT NOT NULL, copy TEXT NOT NULL)");
+        }
+        this.insert = MultiRowInsert.of(parse(INSERT), SQLDialect.SQLITE).orElseThrow();
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testBuckets() {
+        // 999 parameters of SQLite fit 333 rows of three parameters
+        assertArrayEquals(new int[]{1, 8, 64, 333}, this.insert.bucketSizes());
+
+        ValidStatementPromise bucket = this.insert.bucket(8);
+        assertEquals(24, bucket.getParameterTable().parameterCount());
+        assertEquals(16, bucket.getParameterTable().declaredCount());
+        assertEquals(List.of(5, 6), bucket.getReplacement().get(3)); // @data of the second row
+        assertEquals(List.of(4), bucket.getReplacement().get(4)); // @id of the second row
+        assertTrue(bucket.getRawContent().endsWith("VALUES (?, ?, ?), (?, ?, ?), (?, ?, ?), (?, ?, ?), (?, ?, ?), (?, ?, ?), (?, ?, ?), (?, ?, ?);"));
+    }
+
+    @Test
+    public void testMaximumRows() {
+        MultiRowInsert mysql = MultiRowInsert.of(parse(INSERT), SQLDialect.MYSQL).orElseThrow();
+        assertArrayEquals(new int[]{1, 8, 64, MultiRowInsert.MAX_ROWS}, mysql.bucketSizes());
+    }
+
+    @Test
+    public void testExecute() throws SQLException {
+        List<Integer> rows = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        BatchResult result = this.insert.execute(this.connection, rows, (statement, id) -> {
+            statement.setString(1, "data-" + id);
+            statement.setInt(2, id);
+        });
+
+        // 3 * 333 rows, followed by the single remaining row
+        assertEquals(1000, result.rows());
+        assertEquals(4, result.batches());
+        assertEquals(1000, result.updateCount());
+
+        try (Statement statement = this.connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*), SUM(data = 'data-' || id AND copy = data) FROM test_table")) {
+            resultSet.next();
+            assertEquals(1000, resultSet.getInt(1));
+            assertEquals(1000, resultSet.getInt(2));
+        }
+    }
+
+    @Test
+    public void testSpreadRemainder() throws SQLException {
+        BatchResult result = this.insert.execute(this.connection, IntStream.range(0, 75).boxed().collect(Collectors.toList()), (statement, id) -> {
+            statement.setString(1, "data");
+            statement.setInt(2, id);
+        });
+        assertEquals(75, result.rows());
+        assertEquals(5, result.batches()); // 64 + 8 + 1 + 1 + 1
+        assertEquals(0, this.insert.execute(this.connection, List.<Integer>of(), (statement, id) -> {
+        }).batches());
+    }
+
+    @Test
+    public void testObjectBinder() throws SQLException {
+        ValidStatementPromise promise = parse(INSERT);
+        List<Row> rows = IntStream.range(0, 8).mapToObj(id -> new Row(id, "data-" + id)).collect(Collectors.toList());
+        BatchResult result = MultiRowInsert.of(promise, SQLDialect.SQLITE).orElseThrow()
+                .execute(this.connection, rows, promise.binder(Row.class));
+        assertEquals(1, result.batches());
+        assertEquals(8, result.updateCount());
+    }
+
+    @Test
+    public void testNotApplicable() {
+        // Variables behind the tuple
+        assertFalse(MultiRowInsert.of(parse("/*\n@id\n@name\n*/\nINSERT INTO test (id, name) VALUES (@id, @name) ON CONFLICT(id) DO UPDATE SET name=@name;"), SQLDialect.SQLITE).isPresent());
+        // Already several rows
+        assertFalse(MultiRowInsert.of(parse("/*\n@a\n@b\n*/\nINSERT INTO test (a) VALUES (@a), (@b);"), SQLDialect.SQLITE).isPresent());
+        // No insert at all
+        assertFalse(MultiRowInsert.of(parse("/*\n@a\n*/\nUPDATE test SET a = @a;"), SQLDialect.SQLITE).isPresent());
+        assertFalse(MultiRowInsert.of(parse("/*\n@a\n*/\nINSERT INTO test (a) SELECT a FROM other WHERE a = @a;"), SQLDialect.SQLITE).isPresent());
+    }
+
+    @Test
+    public void testConstantSuffix() {
+        MultiRowInsert insert = MultiRowInsert.of(parse("/*\n@id\n*/\nINSERT INTO test (id, name) VALUES (@id, 'a, (b')\n-- values (\nON CONFLICT DO NOTHING"), SQLDialect.SQLITE).orElseThrow();
+        assertTrue(insert.bucket(8).getRawContent().contains("VALUES (?, 'a, (b'), (?, 'a, (b'), "));
+        assertTrue(insert.bucket(8).getRawContent().endsWith("ON CONFLICT DO NOTHING"));
+    }
+
+    @Test
+    public void testCloseFailuresAreSuppressed() throws SQLException {
+        List<PreparedStatement> prepared = new ArrayList<>();
+        SQLException failure = new SQLException("Binding failed");
+        try {
+            this.insert.execute(failingClose(prepared), IntStream.range(0, 75).boxed().collect(Collectors.toList()), (statement, id) -> {
+                if (id == 74) throw failure;
+                statement.setString(1, "data");
+                statement.setInt(2, id);
+            });
+            fail("The last row cannot be bound");
+        } catch (SQLException e) {
+            // The buckets of 64, 8 and 1 rows were prepared, all of them are closed
+            assertSame(failure, e);
+            assertEquals(3, e.getSuppressed().length);
+        }
+        assertEquals(3, prepared.size());
+        for (PreparedStatement statement : prepared) assertTrue(statement.isClosed());
+    }
+
+    @Test
+    public void testCloseFailureAfterSuccess() throws SQLException {
+        List<PreparedStatement> prepared = new ArrayList<>();
+        try {
+            this.insert.execute(failingClose(prepared), IntStream.range(0, 9).boxed().collect(Collectors.toList()), (statement, id) -> {
+                statement.setString(1, "data");
+                statement.setInt(2, id);
+            });
+            fail("The statements cannot be closed");
+        } catch (SQLException e) {
+            assertEquals("Closing failed", e.getMessage());
+            assertEquals(1, e.getSuppressed().length);
+        }
+        assertEquals(2, prepared.size());
+        for (PreparedStatement statement : prepared) assertTrue(statement.isClosed());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIndexOutOfRow() throws SQLException {
+        this.insert.execute(this.connection, List.of(1, 2), (statement, id) -> {
+            statement.setString(1, "data");
+            statement.setInt(3, id);
+        });
+    }
+
+    @Test
+    public void testRowOutOfBucket() throws SQLException {
+        OffsetStatement view = new OffsetStatement(new EmptyStatementMock(), 8, 2);
+        view.row(7);
+        view.setInt(2, 1);
+        try {
+            view.row(8);
+            fail("The bucket has 8 rows");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            view.setInt(0, 1);
+            fail("Indices start at 1");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Wraps the test connection into one whose prepared statements fail to close after closing the real statement
+     *
+     * @param prepared the list collecting the real statements
+     *
+     * @return the connection
+     */
+    private Connection failingClose(List<PreparedStatement> prepared) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            Object result = invoke(method, this.connection, args);
+            if (!method.getName().equals("prepareStatement")) return result;
+
+            PreparedStatement statement = (PreparedStatement) result;
+            prepared.add(statement);
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (p, m, a) -> {
+                Object value = invoke(m, statement, a);
+                if (m.getName().equals("close")) throw new SQLException("Closing failed");
+                return value;
+            });
+        });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static ValidStatementPromise parse(String script) {
+        return (ValidStatementPromise) new ValidStatementParser().apply(script);
+    }
+
+    public static final class Row {
+
+        private final int id;
+        private final String data;
+
+        public Row(int id, String data) {
+            this.id = id;
+            this.data = data;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        public String getData() {
+            return this.data;
+        }
+    }
+}
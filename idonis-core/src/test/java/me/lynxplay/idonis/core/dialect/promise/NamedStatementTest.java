@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.bundle.StatementCodec;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NamedStatementTest {
+
+    private static final String INSERT = "/*\n@name\n@id\n@first_name\n*/\n"
+            + "INSERT INTO users (id, name, first_name, alias) VALUES (@id, @name, @first_name, @name);";
+
+    private final ValidStatementParser parser = new ValidStatementParser();
+    private Connection connection;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id INTEGER, name TEXT, first_name TEXT, alias TEXT)");
+        }
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testBindByName() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply(INSERT);
+        try (NamedStatement statement = promise.prepareNamed(this.connection)) {
+            statement.setLong("id", 1);
+            statement.setString("@name", "lynx");
+            statement.setString("first_name", "bjarne");
+            statement.executeUpdate();
+
+            statement.setInt(2, 2); // Declared indices keep working
+            statement.setString("name", "other");
+            statement.setNull("first_name", java.sql.Types.VARCHAR);
+            statement.executeUpdate();
+        }
+        assertEquals("1 lynx bjarne lynx|2 other null other", this.select());
+    }
+
+    @Test
+    public void testBindMap() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply(INSERT);
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", 3);
+        values.put("name", "lynx");
+        values.put("first_name", null);
+        values.put("unrelated", "ignored");
+
+        try (NamedStatement statement = promise.prepareNamed(this.connection)) {
+            statement.setAll(values);
+            statement.executeUpdate();
+        }
+        assertEquals("3 lynx null lynx", this.select());
+    }
+
+    @Test(expected = SQLException.class)
+    public void testUnknownName() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply(INSERT);
+        try (NamedStatement statement = promise.prepareNamed(this.connection)) {
+            statement.setString("unknown", "value");
+        }
+    }
+
+    @Test
+    public void testNamesSurviveEncoding() {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply(INSERT);
+        ValidStatementPromise decoded = StatementCodec.decode(ByteBuffer.wrap(StatementCodec.encode(promise)));
+        assertEquals(List.of("@name", "@id", "@first_name"), decoded.getVariables());
+        assertEquals(3, decoded.getVariableNames().indexOf("first_name"));
+    }
+
+    private String select() throws SQLException {
+        StringBuilder rows = new StringBuilder();
+        try (Statement statement = this.connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, name, first_name, alias FROM users ORDER BY id")) {
+            while (resultSet.next()) {
+                if (rows.length() > 0) rows.append('|');
+                rows.append(String.format("%d %s %s %s", resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getString(4)));
+            }
+        }
+        assertTrue(rows.length() > 0);
+        return rows.toString();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ObjectBinderTest {
+
+    private static final String INSERT = "/*\n@name\n@id\n@first_name\n@active\n*/\n"
+            + "INSERT INTO users (id, name, first_name, active, alias) VALUES (@id, @name, @first_name, @active, @name);";
+
+    private final ValidStatementParser parser = new ValidStatementParser();
+    private Connection connection;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id INTEGER, name TEXT, first_name TEXT, active INTEGER, alias TEXT)");
+        }
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testBindAccessors() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply(INSERT);
+        ObjectBinder<UserRecord> binder = promise.binder(UserRecord.class);
+        assertSame(binder, promise.binder(UserRecord.class));
+
+        try (PreparedStatement statement = promise.prepare(this.connection)) {
+            for (int i = 0; i < 3; i++) binder.addBatch(statement, new UserRecord(i, "user-" + i, "first-" + i, i % 2 == 0));
+            statement.executeBatch();
+        }
+        assertEquals(List.of("0 user-0 first-0 1 user-0", "1 user-1 first-1 0 user-1", "2 user-2 first-2 1 user-2"), this.select());
+    }
+
+    @Test
+    public void testBindBeanAndFields() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply(INSERT);
+        UserBean bean = new UserBean();
+        bean.id = 7;
+        bean.name = "lynx";
+        bean.firstName = "bjarne";
+
+        try (PreparedStatement statement = promise.prepare(this.connection)) {
+            promise.binder(UserBean.class).bind(statement, bean);
+            statement.executeUpdate();
+        }
+        assertEquals(List.of("7 lynx bjarne 1 lynx"), this.select());
+    }
+
+    @Test
+    public void testBindThroughForeignStatement() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply(INSERT);
+        try (PreparedStatement statement = new ValidStatementWrapper(this.connection.prepareStatement(promise.getRawContent()), promise.getReplacement())) {
+            promise.binder(UserRecord.class).bind(statement, new UserRecord(1, "a", "b", false));
+            statement.executeUpdate();
+        }
+        assertEquals(List.of("1 a b 0 a"), this.select());
+    }
+
+    @Test
+    public void testBindThroughTransparentStatement() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply(INSERT);
+        try (NamedStatement statement = promise.prepareNamed(this.connection)) {
+            assertTrue(statement.isTransparent());
+            promise.binder(UserRecord.class).bind(statement, new UserRecord(2, "c", "d", true));
+            statement.executeUpdate();
+        }
+        assertEquals(List.of("2 c d 1 c"), this.select());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingProperty() {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply("/*\n@unknown\n*/\nSELECT @unknown;");
+        promise.binder(UserRecord.class);
+    }
+
+    private List<String> select() throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement statement = this.connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, name, first_name, active, alias FROM users ORDER BY id")) {
+            while (resultSet.next()) {
+                rows.add(String.format("%d %s %s %d %s", resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getInt(4), resultSet.getString(5)));
+            }
+        }
+        assertTrue(rows.size() > 0);
+        return rows;
+    }
+
+    /**
+     * A type shaped like a record, with accessors named after its components
+     */
+    private static final class UserRecord {
+
+        private final long id;
+        private final String name;
+        private final String firstName;
+        private final boolean active;
+
+        private UserRecord(long id, String name, String firstName, boolean active) {
+            this.id = id;
+            this.name = name;
+            this.firstName = firstName;
+            this.active = active;
+        }
+
+        public long id() {
+            return this.id;
+        }
+
+        public String name() {
+            return this.name;
+        }
+
+        public String firstName() {
+            return this.firstName;
+        }
+
+        public boolean active() {
+            return this.active;
+        }
+    }
+
+    /**
+     * A bean mixing getters and public fields
+     */
+    public static final class UserBean {
+
+        public int id;
+        public String firstName;
+        private String name;
+
+        public String getName() {
+            return this.name;
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+    }
+}
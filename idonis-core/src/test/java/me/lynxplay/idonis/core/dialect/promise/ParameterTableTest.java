@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParameterTableTest {
+
+    @Test
+    public void testFromDeclaredIndices() {
+        ParameterTable table = ParameterTable.of(new int[]{2, 3, 2, 1, 2}, 5);
+        assertEquals(3, table.declaredCount());
+        assertEquals(5, table.parameterCount());
+        assertEquals(Map.of(1, List.of(4), 2, List.of(1, 3, 5), 3, List.of(2)), table.toMap());
+    }
+
+    @Test
+    public void testFromMap() {
+        Map<Integer, List<Integer>> replacement = Map.of(1, List.of(2), 3, List.of(1, 3));
+        ParameterTable table = ParameterTable.of(replacement);
+        assertEquals(replacement, table.toMap());
+        assertEquals(table.start(2), table.end(2));
+        assertEquals(ParameterTable.of(new int[]{3, 1, 3}, 3), table);
+    }
+
+    @Test
+    public void testUnknownIndices() {
+        ParameterTable table = ParameterTable.of(Map.of(1, List.of(1)));
+        for (int index : new int[]{-1, 0, 2, 100}) {
+            assertEquals(table.start(index), table.end(index));
+        }
+        assertEquals(0, ParameterTable.empty().declaredCount());
+        assertEquals(Map.of(), ParameterTable.empty().toMap());
+    }
+
+    @Test
+    public void testIdentity() {
+        assertTrue(ParameterTable.empty().isIdentity());
+        assertTrue(ParameterTable.of(new int[]{1, 2, 3}, 3).isIdentity());
+        assertFalse(ParameterTable.of(new int[]{2, 1, 3}, 3).isIdentity());
+        assertFalse(ParameterTable.of(new int[]{1, 2, 1}, 3).isIdentity());
+        assertFalse(ParameterTable.of(Map.of(2, List.of(1))).isIdentity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidIndex() {
+        ParameterTable.of(Map.of(0, List.of(1)));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class QueryExecutorTest {
+
+    private Connection connection;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE test_table (id INTEGER PRIMARY KEY, data TEXT NOT NULL)");
+        }
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testUpdateAndQuery() throws SQLException {
+        ValidStatementPromise insert = parse("/*\n@id\n@data\n*/\nINSERT INTO test_table (id, data) VALUES (@id, @data)");
+        for (int i = 0; i < 5; i++) {
+            assertEquals(1, insert.update(this.connection, i, (statement, id) -> {
+                statement.setInt(1, id);
+                statement.setString(2, "data-" + id);
+            }));
+        }
+
+        ValidStatementPromise select = parse("/*\n@min\n*/\nSELECT data AS label, id FROM test_table WHERE id >= @min ORDER BY id");
+        List<String> rows = select.query(this.connection, 3, (statement, min) -> statement.setInt(1, min),
+                row -> row.getInt("id") + ":" + row.getString("LABEL"));
+        assertEquals(List.of("3:data-3", "4:data-4"), rows);
+
+        List<ColumnIndex> columns = select.query(this.connection, 0, (statement, min) -> statement.setInt(1, min), Row::getColumns);
+        assertEquals("label", columns.get(0).label(1));
+        assertSame(columns.get(0), columns.get(4));
+        assertSame(columns.get(0), select.query(this.connection, 4, (statement, min) -> statement.setInt(1, min), Row::getColumns).get(0));
+    }
+
+    @Test
+    public void testQueryFirst() throws SQLException {
+        parse("INSERT INTO test_table (id, data) VALUES (1, 'first'), (2, 'second')").update(this.connection);
+
+        ValidStatementPromise select = parse("/*\n@id\n*/\nSELECT data FROM test_table WHERE id = @id OR @id IS NULL ORDER BY id");
+        assertEquals(Optional.of("second"), select.queryFirst(this.connection, 2, (statement, id) -> statement.setInt(1, id), row -> row.getString(1)));
+        assertEquals(Optional.of("first"), select.queryFirst(this.connection, null, (statement, id) -> statement.setObject(1, id), row -> row.getString("data")));
+        assertEquals(Optional.empty(), select.queryFirst(this.connection, 3, (statement, id) -> statement.setInt(1, id), row -> row.getString(1)));
+    }
+
+    @Test
+    public void testColumnIndex() throws SQLException {
+        ValidStatementPromise select = parse("SELECT 1 AS one, 2 AS \"Two\", COUNT(*), 4 AS one");
+        ColumnIndex columns = this.columns(select);
+        assertEquals(1, columns.indexOf("one"));
+        assertEquals(2, columns.indexOf("two"));
+        assertEquals(2, columns.indexOf("Two"));
+        assertEquals(3, columns.indexOf("COUNT(*)"));
+        assertEquals(4, columns.size());
+        try {
+            columns.indexOf("COUNT");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().contains("COUNT"));
+            return;
+        }
+        throw new AssertionError("COUNT is no column label");
+    }
+
+    @Test
+    public void testChangedColumnLabels() throws SQLException {
+        parse("INSERT INTO test_table (id, data) VALUES (1, 'first')").update(this.connection);
+        ValidStatementPromise select = parse("SELECT * FROM test_table");
+        ColumnIndex columns = this.columns(select);
+        assertSame(columns, this.columns(select));
+        assertEquals(2, columns.indexOf("data"));
+
+        parse("ALTER TABLE test_table RENAME COLUMN data TO payload").update(this.connection);
+        assertEquals(List.of("first"), select.query(this.connection, row -> row.getString("payload")));
+        assertEquals("payload", this.columns(select).label(2));
+    }
+
+    private ColumnIndex columns(ValidStatementPromise promise) throws SQLException {
+        return promise.query(this.connection, Row::getColumns).get(0);
+    }
+
+    private static ValidStatementPromise parse(String script) {
+        return (ValidStatementPromise) new ValidStatementParser().apply(script);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RowIteratorTest {
+
+    private static final String SELECT = "/*\n@min\n*/\nSELECT id, data FROM test_table WHERE id >= @min ORDER BY id";
+
+    private Connection connection;
+    private ValidStatementPromise promise;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE test_table (id INTEGER PRIMARY KEY, data TEXT NOT NULL)");
+            statement.execute("WITH RECURSIVE ids(id) AS (SELECT 0 UNION ALL SELECT id + 1 FROM ids WHERE id < 9999) "
+                    + "INSERT INTO test_table SELECT id, 'data-' || id FROM ids");
+        }
+        this.promise = (ValidStatementPromise) new ValidStatementParser().apply(SELECT);
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testStreamClosesStatement() throws SQLException {
+        AtomicReference<ResultSet> resultSet = new AtomicReference<>();
+        try (Stream<String> rows = this.promise.stream(this.connection, 100, (statement, min) -> statement.setInt(1, min), row -> {
+            resultSet.set(row.getResultSet());
+            return row.getString("data");
+        }, 50)) {
+            assertEquals(List.of("data-100", "data-101", "data-102"), rows.limit(3).collect(Collectors.toList()));
+            assertFalse(resultSet.get().getStatement().isClosed());
+        }
+        assertTrue(resultSet.get().isClosed());
+    }
+
+    @Test
+    public void testFetchSize() throws SQLException {
+        // SQLite ignores the fetch size, the statement records it instead
+        AtomicInteger fetchSize = new AtomicInteger();
+        PreparedStatement statement = new DelegatingPreparedStatement(this.connection.prepareStatement(this.promise.getRawContent())) {
+            @Override
+            public void setFetchSize(int rows) throws SQLException {
+                fetchSize.set(rows);
+                super.setFetchSize(rows);
+            }
+        };
+        try (RowIterator<Integer> iterator = QueryExecutor.iterate(this.promise, statement, 0, (s, min) -> s.setInt(1, min), row -> row.getInt(1), 250)) {
+            assertEquals(0, (int) iterator.next());
+        }
+        assertEquals(250, fetchSize.get());
+        assertTrue(statement.isClosed());
+    }
+
+    @Test
+    public void testExhaustedIteratorCloses() throws SQLException {
+        RowIterator<Integer> iterator = this.promise.iterate(this.connection, 9998, (statement, min) -> statement.setInt(1, min), row -> row.getInt(1), 0);
+        assertEquals(9998, (int) iterator.next());
+        assertEquals(9999, (int) iterator.next());
+        assertFalse(iterator.hasNext());
+        assertTrue(iterator.isClosed());
+        try {
+            iterator.next();
+            fail("The iterator is exhausted");
+        } catch (NoSuchElementException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testStreamAll() throws SQLException {
+        try (Stream<Integer> ids = this.promise.stream(this.connection, 0, (statement, min) -> statement.setInt(1, min), row -> row.getInt("id"), 1000)) {
+            assertEquals(49995000L, ids.mapToLong(Integer::longValue).sum());
+        }
+    }
+
+    @Test
+    public void testMapperFailureCloses() throws SQLException {
+        RowIterator<String> iterator = this.promise.iterate(this.connection, 0, (statement, min) -> statement.setInt(1, min), row -> row.getString("missing"), 0);
+        try {
+            iterator.next();
+            fail("The column does not exist");
+        } catch (UncheckedSQLException e) {
+            assertTrue(iterator.isClosed());
+        }
+    }
+
+    @Test
+    public void testThrowingMapperCloses() throws SQLException {
+        IllegalStateException failure = new IllegalStateException("Mapping failed");
+        RowIterator<Integer> iterator = this.promise.iterate(this.connection, 0, (statement, min) -> statement.setInt(1, min), row -> {
+            throw failure;
+        }, 0);
+        try {
+            iterator.next();
+            fail("The mapper throws");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+            assertTrue(iterator.isClosed());
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void testBindFailure() throws SQLException {
+        this.promise.iterate(this.connection, 0, (statement, min) -> {
+            throw new SQLException("Binding failed");
+        }, row -> row, 0);
+    }
+}
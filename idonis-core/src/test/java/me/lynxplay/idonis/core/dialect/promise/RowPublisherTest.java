@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RowPublisherTest {
+
+    private static final String SELECT = "/*\n@min\n*/\nSELECT id FROM test_table WHERE id >= @min ORDER BY id";
+
+    private Connection connection;
+    private ValidStatementPromise promise;
+    private ExecutorService executor;
+    private final AtomicReference<ResultSet> resultSet = new AtomicReference<>();
+    private final AtomicReference<Thread> thread = new AtomicReference<>();
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE test_table (id INTEGER PRIMARY KEY)");
+            statement.execute("WITH RECURSIVE ids(id) AS (SELECT 0 UNION ALL SELECT id + 1 FROM ids WHERE id < 99) INSERT INTO test_table SELECT id FROM ids");
+        }
+        this.promise = (ValidStatementPromise) new ValidStatementParser().apply(SELECT);
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.executor.shutdownNow();
+        this.connection.close();
+    }
+
+    @Test
+    public void testDemand() throws Exception {
+        RecordingSubscriber subscriber = this.subscribe(90);
+        this.await();
+        assertTrue(subscriber.rows.isEmpty());
+        assertNull(this.resultSet.get()); // Nothing is queried before the first request
+
+        subscriber.subscription.request(3);
+        this.await();
+        assertEquals(List.of(90, 91, 92), subscriber.rows);
+        assertFalse(this.resultSet.get().isClosed());
+        assertTrue(this.thread.get() != Thread.currentThread());
+
+        subscriber.subscription.request(100);
+        this.await();
+        assertEquals(10, subscriber.rows.size());
+        assertTrue(subscriber.completed);
+        assertTrue(this.resultSet.get().isClosed());
+    }
+
+    @Test
+    public void testCancelClosesStatement() throws Exception {
+        RecordingSubscriber subscriber = this.subscribe(0);
+        subscriber.subscription.request(2);
+        this.await();
+        subscriber.subscription.cancel();
+        this.await();
+
+        assertEquals(List.of(0, 1), subscriber.rows);
+        assertTrue(this.resultSet.get().isClosed());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.failure);
+    }
+
+    @Test
+    public void testCancelFromOnNext() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                if (item == 4) this.subscription.cancel();
+            }
+        };
+        this.publisher(0).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        this.await();
+
+        assertEquals(List.of(0, 1, 2, 3, 4), subscriber.rows);
+        assertTrue(this.resultSet.get().isClosed());
+    }
+
+    @Test
+    public void testSubscriptionsShareConnection() throws Exception {
+        Flow.Publisher<Integer> publisher = this.publisher(95);
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        first.subscription.request(1);
+        second.subscription.request(Long.MAX_VALUE);
+        this.await();
+        assertEquals(List.of(95), first.rows);
+        assertTrue(second.rows.isEmpty()); // Waits for the connection held by the open result of the first subscription
+
+        first.subscription.cancel();
+        this.await();
+        this.await();
+        assertEquals(List.of(95, 96, 97, 98, 99), second.rows);
+        assertTrue(second.completed);
+    }
+
+    @Test
+    public void testInvalidRequest() throws Exception {
+        RecordingSubscriber subscriber = this.subscribe(0);
+        subscriber.subscription.request(0);
+        this.await();
+        assertTrue(subscriber.failure instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testQueryFailure() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        this.promise.publish(this.connection, 0, (statement, min) -> {
+            throw new SQLException("Binding failed");
+        }, row -> row.getInt(1), 0, this.executor).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        this.await();
+        assertTrue(subscriber.failure instanceof SQLException);
+    }
+
+    private RecordingSubscriber subscribe(int min) {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        this.publisher(min).subscribe(subscriber);
+        return subscriber;
+    }
+
+    private Flow.Publisher<Integer> publisher(int min) {
+        return this.promise.publish(this.connection, min, (statement, value) -> statement.setInt(1, value), row -> {
+            this.resultSet.set(row.getResultSet());
+            this.thread.set(Thread.currentThread());
+            return row.getInt("id");
+        }, 16, this.executor);
+    }
+
+    /**
+     * Waits for all tasks submitted to the single threaded executor so far
+     */
+    private void await() throws ExecutionException, InterruptedException {
+        this.executor.submit(() -> {
+        }).get();
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+
+        protected volatile Flow.Subscription subscription;
+        private final List<Integer> rows = new ArrayList<>();
+        private volatile boolean completed;
+        private volatile Throwable failure;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            this.rows.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.failure = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValidStatementPromiseTest {
+
+    private final ValidStatementParser parser = new ValidStatementParser();
+    private Connection connection;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id INTEGER, name TEXT, alias TEXT)");
+        }
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    public void testIdentityReturnsDriverStatement() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply("/*\n@id\n@name\n*/\nINSERT INTO users (id, name) VALUES (@id, @name);");
+        try (PreparedStatement statement = promise.prepare(this.connection)) {
+            assertFalse(statement instanceof ValidStatementWrapper);
+            statement.setInt(1, 1);
+            statement.setString(2, "lynx");
+            statement.executeUpdate();
+        }
+        assertEquals("1 lynx null", this.select());
+    }
+
+    @Test
+    public void testNoVariablesReturnsDriverStatement() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply("DELETE FROM users;");
+        try (PreparedStatement statement = promise.prepare(this.connection)) {
+            assertFalse(statement instanceof ValidStatementWrapper);
+        }
+    }
+
+    @Test
+    public void testRemappedStatementIsWrapped() throws SQLException {
+        ValidStatementPromise promise = (ValidStatementPromise) parser.apply("/*\n@name\n@id\n*/\nINSERT INTO users (id, name, alias) VALUES (@id, @name, @name);");
+        try (PreparedStatement statement = promise.prepare(this.connection)) {
+            assertTrue(statement instanceof ValidStatementWrapper);
+            statement.setString(1, "lynx");
+            statement.setInt(2, 1);
+            statement.executeUpdate();
+        }
+        assertEquals("1 lynx lynx", this.select());
+    }
+
+    private String select() throws SQLException {
+        try (Statement statement = this.connection.createStatement(); ResultSet resultSet = statement.executeQuery("SELECT id, name, alias FROM users")) {
+            assertTrue(resultSet.next());
+            return resultSet.getInt(1) + " " + resultSet.getString(2) + " " + resultSet.getString(3);
+        }
+    }
+}
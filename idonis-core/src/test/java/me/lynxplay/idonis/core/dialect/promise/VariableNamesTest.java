@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class VariableNamesTest {
+
+    @Test
+    public void testLookup() {
+        VariableNames names = VariableNames.of(List.of("@id", "@first_name", ":last_name:"));
+        assertEquals(3, names.size());
+        assertEquals(1, names.indexOf("id"));
+        assertEquals(1, names.indexOf("@id"));
+        assertEquals(2, names.indexOf("first_name"));
+        assertEquals(3, names.indexOf("last_name"));
+        assertEquals(3, names.indexOf(":last_name:"));
+        assertEquals(-1, names.indexOf("unknown"));
+        assertEquals("first_name", names.name(2));
+    }
+
+    @Test
+    public void testFirstDeclarationWins() {
+        VariableNames names = VariableNames.of(List.of("@id", "id"));
+        assertEquals(1, names.indexOf("id"));
+        assertEquals(2, names.size());
+    }
+
+    @Test
+    public void testManyNames() {
+        List<String> variables = new ArrayList<>();
+        for (int i = 0; i < 500; i++) variables.add("@variable_" + i);
+
+        VariableNames names = VariableNames.of(variables);
+        for (int i = 0; i < 500; i++) assertEquals(i + 1, names.indexOf("variable_" + i));
+        assertEquals(-1, VariableNames.of(List.of()).indexOf("id"));
+    }
+
+    @Test
+    public void testName() {
+        assertEquals("first_name", VariableNames.name("@first_name"));
+        assertEquals("id", VariableNames.name(":id:"));
+        assertEquals("", VariableNames.name("@"));
+    }
+}
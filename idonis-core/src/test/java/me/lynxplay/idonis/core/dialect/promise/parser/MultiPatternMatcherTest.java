@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise.parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MultiPatternMatcherTest {
+
+    @Test
+    public void testLongestMatchWins() {
+        List<String> patterns = List.of("@id", "@id_two");
+        assertEquals(List.of(List.of(1, 2, 9), List.of(0, 11, 14)), match(patterns, "a @id_two, @id"));
+    }
+
+    @Test
+    public void testMatchBehindFinalMatch() {
+        List<String> patterns = List.of("a", "cb", "cb", "abaa", "acbb");
+        assertEquals(List.of(List.of(0, 0, 1), List.of(0, 3, 4), List.of(1, 4, 6)), match(patterns, "abdacb"));
+    }
+
+    @Test
+    public void testRange() {
+        List<String> patterns = List.of("ab", "b");
+        assertEquals(List.of(List.of(1, 1, 2), List.of(0, 2, 4)), match(patterns, "abab", 1, 4));
+    }
+
+    @Test
+    public void testRandomAgainstNaive() {
+        Random random = new Random(42);
+        for (int run = 0; run < 2000; run++) {
+            List<String> patterns = new ArrayList<>();
+            int count = 1 + random.nextInt(6);
+            for (int i = 0; i < count; i++) patterns.add(randomText(random, random.nextInt(5)));
+            String text = randomText(random, random.nextInt(20));
+
+            assertEquals(patterns + " in " + text, naive(patterns, text), match(patterns, text));
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) builder.append((char) ('a' + random.nextInt(4)));
+        return builder.toString();
+    }
+
+    private static List<List<Integer>> match(List<String> patterns, String text) {
+        return match(patterns, text, 0, text.length());
+    }
+
+    private static List<List<Integer>> match(List<String> patterns, String text, int from, int to) {
+        List<List<Integer>> matches = new ArrayList<>();
+        new MultiPatternMatcher(patterns).match(text, from, to, (pattern, start, end) -> matches.add(List.of(pattern, start, end)));
+        return matches;
+    }
+
+    private static List<List<Integer>> naive(List<String> patterns, String text) {
+        List<List<Integer>> matches = new ArrayList<>();
+        int position = 0;
+        while (position < text.length()) {
+            int best = -1;
+            for (int i = 0; i < patterns.size(); i++) {
+                String pattern = patterns.get(i);
+                if (pattern.isEmpty() || !text.startsWith(pattern, position)) continue;
+                if (best < 0 || pattern.length() > patterns.get(best).length()) best = i;
+            }
+
+            if (best < 0) {
+                position++;
+                continue;
+            }
+            matches.add(List.of(best, position, position + patterns.get(best).length()));
+            position += patterns.get(best).length();
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise.parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SqlLexerTest {
+
+    @Test
+    public void testTokenTypes() {
+        SqlTokens tokens = new SqlLexer(SqlSyntax.ANSI).tokenize("/* a */ SELECT 'x''y', \"id\" -- done\n");
+        assertEquals(List.of(
+                SqlTokenType.BLOCK_COMMENT, SqlTokenType.WHITESPACE, SqlTokenType.CODE, SqlTokenType.WHITESPACE,
+                SqlTokenType.STRING, SqlTokenType.CODE, SqlTokenType.WHITESPACE, SqlTokenType.QUOTED_IDENTIFIER,
+                SqlTokenType.WHITESPACE, SqlTokenType.LINE_COMMENT, SqlTokenType.WHITESPACE
+        ), types(tokens));
+        assertEquals("'x''y'", tokens.text(4));
+        assertEquals("-- done", tokens.text(9));
+    }
+
+    @Test
+    public void testTokensCoverSource() {
+        String source = "SELECT /* one */ a, /* two */ b FROM `t` WHERE c = 'unterminated";
+        SqlTokens tokens = new SqlLexer(SqlSyntax.MYSQL).tokenize(source);
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) joined.append(tokens.text(i));
+        assertEquals(source, joined.toString());
+        assertEquals("/* two */", tokens.text(6));
+        assertEquals(SqlTokenType.STRING, tokens.type(tokens.size() - 1));
+    }
+
+    @Test
+    public void testDialectComments() {
+        assertEquals(SqlTokenType.CODE, new SqlLexer(SqlSyntax.MYSQL).tokenize("--1").type(0));
+        assertEquals(SqlTokenType.LINE_COMMENT, new SqlLexer(SqlSyntax.MYSQL).tokenize("-- 1").type(0));
+        assertEquals(SqlTokenType.LINE_COMMENT, new SqlLexer(SqlSyntax.MYSQL).tokenize("# 1").type(0));
+        assertEquals(SqlTokenType.LINE_COMMENT, new SqlLexer(SqlSyntax.SQLITE).tokenize("--1").type(0));
+        assertEquals(SqlTokenType.CODE, new SqlLexer(SqlSyntax.SQLITE).tokenize("# 1").type(0));
+    }
+
+    @Test
+    public void testDialectQuotes() {
+        assertEquals(SqlTokenType.STRING, new SqlLexer(SqlSyntax.MYSQL).tokenize("\"a\\\"b\"").type(0));
+        assertEquals(1, new SqlLexer(SqlSyntax.MYSQL).tokenize("'a\\'b'").size());
+        assertEquals(3, new SqlLexer(SqlSyntax.SQLITE).tokenize("'a\\'b'").size());
+        assertEquals(SqlTokenType.QUOTED_IDENTIFIER, new SqlLexer(SqlSyntax.SQLITE).tokenize("\"a\"").type(0));
+        assertEquals(SqlTokenType.QUOTED_IDENTIFIER, new SqlLexer(SqlSyntax.SQLITE).tokenize("[a b]").type(0));
+        assertEquals(SqlTokenType.CODE, new SqlLexer(SqlSyntax.MYSQL).tokenize("[a").type(0));
+    }
+
+    private static List<SqlTokenType> types(SqlTokens tokens) {
+        List<SqlTokenType> types = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) types.add(tokens.type(i));
+        return types;
+    }
+}
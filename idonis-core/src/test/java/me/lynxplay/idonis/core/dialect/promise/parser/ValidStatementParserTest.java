@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package me.lynxplay.idonis.core.dialect.promise.parser;
+
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.dialect.SQLDialect;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ValidStatementParserTest {
+
+    private final ValidStatementParser parser = new ValidStatementParser();
+
+    @Test
+    public void testScriptWithPlainParameter() throws IOException {
+        ValidStatementPromise promise = this.parse(Files.readString(Path.of("src/test/resources/sql-scripts/sqlite/insertTest.sql")));
+        assertEquals(" INSERT INTO test_table (id, data, other_data) VALUES (?, ?, ?) ON CONFLICT(id) DO UPDATE SET data=?, other_data=?; ",
+                promise.getRawContent());
+        assertEquals(Map.of(1, List.of(4), 2, List.of(1, 3, 5), 3, List.of(2)), promise.getReplacement());
+    }
+
+    @Test
+    public void testLongestVariableWins() {
+        ValidStatementPromise promise = this.parse(script(List.of("@id", "@id_two"), "SELECT * FROM t WHERE a = @id_two AND b = @id;"));
+        assertEquals("SELECT * FROM t WHERE a = ? AND b = ?;", promise.getRawContent());
+        assertEquals(Map.of(1, List.of(2), 2, List.of(1)), promise.getReplacement());
+    }
+
+    @Test
+    public void testScriptWithoutComment() {
+        ValidStatementPromise promise = this.parse("SELECT *" + System.lineSeparator() + "  FROM t WHERE a = ?;");
+        assertEquals("SELECT * FROM t WHERE a = ?;", promise.getRawContent());
+        assertEquals(Map.of(1, List.of(1)), promise.getReplacement());
+    }
+
+    @Test
+    public void testLiteralsAreNotReplaced() {
+        ValidStatementPromise promise = this.parse(script(List.of("@id"), "SELECT '@id?', \"@id\", `?` FROM t WHERE a = @id AND b = 'it''s @id';"));
+        assertEquals("SELECT '@id?', \"@id\", `?` FROM t WHERE a = ? AND b = 'it''s @id';", promise.getRawContent());
+        assertEquals(Map.of(1, List.of(1)), promise.getReplacement());
+    }
+
+    @Test
+    public void testCommentsAreNotReplaced() {
+        String body = String.join(System.lineSeparator(),
+                "SELECT * -- where is @id?",
+                "FROM t /*+ INDEX(t idx) */",
+                "WHERE a = @id;");
+        ValidStatementPromise promise = this.parse(script(List.of("@id"), body));
+        assertEquals("SELECT * FROM t /*+ INDEX(t idx) */ WHERE a = ?;", promise.getRawContent());
+        assertEquals(Map.of(1, List.of(1)), promise.getReplacement());
+    }
+
+    @Test
+    public void testOptimizerHintIsNoHeader() {
+        ValidStatementPromise promise = this.parse("SELECT /*+ MAX_EXECUTION_TIME(1000) */ * FROM t WHERE id = ?");
+        assertEquals("SELECT /*+ MAX_EXECUTION_TIME(1000) */ * FROM t WHERE id = ?", promise.getRawContent());
+        assertEquals(List.of(), promise.getVariables());
+        assertEquals(Map.of(1, List.of(1)), promise.getReplacement());
+    }
+
+    @Test
+    public void testHeaderDescription() {
+        ValidStatementPromise promise = this.parse(script(List.of("Returns a user", "@id", "by its id"), "SELECT * FROM t WHERE id = @id;"));
+        assertEquals("SELECT * FROM t WHERE id = ?;", promise.getRawContent());
+        assertEquals(List.of("@id"), promise.getVariables());
+    }
+
+    @Test
+    public void testLeadingCommentWithoutVariables() {
+        ValidStatementPromise promise = this.parse("/* Counts all users */ SELECT COUNT(*) FROM t WHERE a = ?");
+        assertEquals("/* Counts all users */ SELECT COUNT(*) FROM t WHERE a = ?", promise.getRawContent());
+        assertEquals(Map.of(1, List.of(1)), promise.getReplacement());
+    }
+
+    @Test
+    public void testMySqlQuoting() {
+        ValidStatementParser mysql = new ValidStatementParser(SQLDialect.MYSQL);
+        String body = "SELECT 'a\\' @id' FROM t # @id?" + System.lineSeparator() + "WHERE a = @id;";
+        ValidStatementPromise promise = (ValidStatementPromise) mysql.apply(script(List.of("@id"), body));
+        assertEquals("SELECT 'a\\' @id' FROM t WHERE a = ?;", promise.getRawContent());
+        assertEquals(Map.of(1, List.of(1)), promise.getReplacement());
+    }
+
+    @Test
+    public void testSqliteBracketIdentifiers() {
+        ValidStatementParser sqlite = new ValidStatementParser(SQLDialect.SQLITE);
+        ValidStatementPromise promise = (ValidStatementPromise) sqlite.apply(script(List.of("@id"), "SELECT [@id?] FROM t WHERE a = @id;"));
+        assertEquals("SELECT [@id?] FROM t WHERE a = ?;", promise.getRawContent());
+    }
+
+    @Test
+    public void testManyVariables() {
+        List<String> variables = new ArrayList<>();
+        for (int i = 0; i < 64; i++) variables.add("@variable_" + i);
+
+        StringBuilder body = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        Map<Integer, List<Integer>> expectedTable = new HashMap<>();
+        for (int i = 0; i < 1024; i++) {
+            int variable = (i * 31) % variables.size();
+            body.append("UPDATE t SET c = ").append(variables.get(variable)).append(";").append(System.lineSeparator());
+            expected.append("UPDATE t SET c = ?; ");
+            expectedTable.computeIfAbsent(variable + 1, $ -> new ArrayList<>()).add(i + 1);
+        }
+
+        ValidStatementPromise promise = this.parse(script(variables, body.toString()));
+        assertEquals(expected.toString(), promise.getRawContent());
+        assertEquals(expectedTable, promise.getReplacement());
+    }
+
+    private ValidStatementPromise parse(String source) {
+        return (ValidStatementPromise) this.parser.apply(source);
+    }
+
+    private static String script(List<String> variables, String body) {
+        return "/*" + System.lineSeparator() + String.join(System.lineSeparator(), variables) + System.lineSeparator() + "*/" + body;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Bjarne Koll
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package me.lynxplay.idonis.core.session;
+
+import me.lynxplay.idonis.core.dialect.promise.ValidStatementPromise;
+import me.lynxplay.idonis.core.dialect.promise.parser.ValidStatementParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IdonisSessionTest {
+
+    private Connection connection;
+    private IdonisSession session;
+
+    @Before
+    public void before() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        this.session = new IdonisSession(this.connection, 2);
+    }
+
+    @After
+    public void after() throws SQLException {
+        this.session.close();
+        this.connection.close();
+    }
+
+    @Test
+    public void testReuse() throws SQLException {
+        ValidStatementPromise promise = parse("SELECT @value");
+
+        PreparedStatement first = this.session.prepare(promise);
+        PreparedStatement driver = ((SessionStatement) first).getWrapped();
+        first.setString(1, "value");
+        assertEquals("value", this.selectString(first));
+        first.close();
+        assertTrue(first.isClosed());
+        assertFalse(driver.isClosed());
+
+        try (PreparedStatement second = this.session.prepare(promise)) {
+            assertSame(driver, ((SessionStatement) second).getWrapped());
+            assertNull(this.selectString(second)); // The parameters were cleared
+        }
+
+        assertEquals(1, this.session.statistics().hitCount());
+        assertEquals(1, this.session.statistics().missCount());
+    }
+
+    @Test
+    public void testClosingOldLeaseTwice() throws SQLException {
+        ValidStatementPromise promise = parse("SELECT @value");
+        PreparedStatement first = this.session.prepare(promise);
+        first.close();
+
+        try (PreparedStatement second = this.session.prepare(promise)) {
+            assertNotSame(first, second);
+            assertSame(((SessionStatement) first).getWrapped(), ((SessionStatement) second).getWrapped());
+            first.close(); // Must not return the statement the second lease uses
+
+            second.setString(1, "value");
+            assertFalse(second.isClosed());
+            try (PreparedStatement third = this.session.prepare(promise)) {
+                assertNotSame(((SessionStatement) second).getWrapped(), ((SessionStatement) third).getWrapped());
+            }
+            assertEquals("value", this.selectString(second));
+        }
+        assertEquals(1, this.session.size());
+    }
+
+    @Test
+    public void testConcurrentUse() throws SQLException {
+        ValidStatementPromise promise = parse("SELECT @value");
+        try (PreparedStatement first = this.session.prepare(promise); PreparedStatement second = this.session.prepare(promise)) {
+            assertNotSame(((SessionStatement) first).getWrapped(), ((SessionStatement) second).getWrapped());
+            second.close();
+            assertTrue(((SessionStatement) second).getWrapped().isClosed()); // Not cached, the first one is
+        }
+        assertEquals(1, this.session.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws SQLException {
+        ValidStatementPromise first = parse("SELECT 1");
+        ValidStatementPromise second = parse("SELECT 2");
+        ValidStatementPromise third = parse("SELECT 3");
+
+        PreparedStatement firstDriver = this.use(first);
+        PreparedStatement secondDriver = this.use(second);
+        this.use(first);
+        this.use(third);
+
+        assertEquals(2, this.session.size());
+        assertEquals(1, this.session.statistics().evictionCount());
+        assertTrue(secondDriver.isClosed());
+        assertFalse(firstDriver.isClosed());
+    }
+
+    @Test
+    public void testLeasedStatementsAreNotEvicted() throws SQLException {
+        IdonisSession session = new IdonisSession(this.connection, 0);
+        try (PreparedStatement statement = session.prepare(parse("SELECT 1"))) {
+            assertEquals(1, session.size());
+            assertFalse(statement.isClosed());
+        }
+        assertEquals(0, session.size());
+        assertEquals(1, session.statistics().evictionCount());
+    }
+
+    @Test
+    public void testCloseReleasesEverything() throws SQLException {
+        PreparedStatement cached = this.use(parse("SELECT 1"));
+        PreparedStatement leased = this.session.prepare(parse("SELECT 2"));
+
+        this.session.close();
+        assertTrue(cached.isClosed());
+        assertTrue(((SessionStatement) leased).getWrapped().isClosed());
+        assertFalse(this.connection.isClosed());
+        leased.close(); // Returning a statement to a closed session is fine
+    }
+
+    @Test(expected = SQLException.class)
+    public void testPrepareOnClosedSession() throws SQLException {
+        this.session.close();
+        this.session.prepare(parse("SELECT 1"));
+    }
+
+    private PreparedStatement use(ValidStatementPromise promise) throws SQLException {
+        try (PreparedStatement statement = this.session.prepare(promise)) {
+            statement.executeQuery().close();
+            return ((SessionStatement) statement).getWrapped();
+        }
+    }
+
+    private String selectString(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static ValidStatementPromise parse(String sql) {
+        return (ValidStatementPromise) new ValidStatementParser().apply("/*\n@value\n*/\n" + sql);
+    }
+}